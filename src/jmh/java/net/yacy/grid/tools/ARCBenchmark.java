@@ -0,0 +1,88 @@
+/**
+ *  ARCBenchmark
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * get and put on a ConcurrentARC under contention of several threads.
+ * The keys are skewed so that most accesses hit a hot set which is smaller than the cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ARCBenchmark {
+
+    private final static int CACHE_SIZE = 100000;
+    private final static int KEY_SPACE = 4 * CACHE_SIZE;
+
+    @Param({"hash", "adaptive"})
+    public String type;
+
+    private ConcurrentARC<String, String> arc;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.arc = new ConcurrentARC<String, String>(CACHE_SIZE, 16, "adaptive".equals(this.type));
+        this.keys = new String[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) this.keys[i] = "http://host" + (i % 1000) + ".net/path/" + i;
+        for (int i = 0; i < CACHE_SIZE; i++) this.arc.put(this.keys[i], this.keys[i]);
+    }
+
+    private String key() {
+        final double x = ThreadLocalRandom.current().nextDouble();
+        return this.keys[(int) (KEY_SPACE * x * x * x)];
+    }
+
+    @Benchmark
+    public String get() {
+        return this.arc.get(key());
+    }
+
+    @Benchmark
+    public String getOrPut() {
+        final String key = key();
+        final String v = this.arc.get(key);
+        if (v != null) return v;
+        this.arc.insertIfAbsent(key, key);
+        return key;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ *  BenchmarkCompare
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Compare two JMH result files which had been written with -rf json.
+ * Every benchmark of the current result is compared with the same benchmark (including the parameters) of the baseline.
+ * A benchmark is reported as regression if it is slower than the baseline by more than the threshold
+ * and the difference is larger than the sum of the score errors of both measurements.
+ * Usage: BenchmarkCompare baseline.json results.json [threshold-percent]
+ * The process exits with status 1 if there was a regression.
+ */
+public class BenchmarkCompare {
+
+    private static Map<String, JSONObject> read(final File f) throws IOException {
+        final JSONArray results = new JSONArray(new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+        final Map<String, JSONObject> map = new LinkedHashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            final JSONObject result = results.getJSONObject(i);
+            final StringBuilder name = new StringBuilder(result.getString("benchmark"));
+            final JSONObject params = result.optJSONObject("params");
+            if (params != null) for (final String key: params.keySet()) name.append(' ').append(key).append('=').append(params.get(key));
+            map.put(name.toString(), result);
+        }
+        return map;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: BenchmarkCompare baseline.json results.json [threshold-percent]");
+            System.exit(2);
+        }
+        final File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.out.println("no baseline " + baselineFile + ", nothing to compare");
+            return;
+        }
+        final Map<String, JSONObject> baseline = read(baselineFile);
+        final Map<String, JSONObject> current = read(new File(args[1]));
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0d;
+        int regressions = 0;
+        for (final Map.Entry<String, JSONObject> entry: current.entrySet()) {
+            final JSONObject c = entry.getValue();
+            final JSONObject b = baseline.get(entry.getKey());
+            final JSONObject cm = c.getJSONObject("primaryMetric");
+            if (b == null) {
+                System.out.println(String.format("%-90s %14.3f %s (new)", entry.getKey(), cm.getDouble("score"), cm.getString("scoreUnit")));
+                continue;
+            }
+            final JSONObject bm = b.getJSONObject("primaryMetric");
+            final double cs = cm.getDouble("score"), bs = bm.getDouble("score");
+            final double error = (Double.isNaN(cm.optDouble("scoreError")) ? 0.0d : cm.optDouble("scoreError")) + (Double.isNaN(bm.optDouble("scoreError")) ? 0.0d : bm.optDouble("scoreError"));
+            final boolean higherIsBetter = "thrpt".equals(c.getString("mode"));
+            final double change = bs == 0.0d ? 0.0d : (higherIsBetter ? (cs - bs) / bs : (bs - cs) / bs) * 100.0d; // positive is an improvement
+            final boolean regression = change < -threshold && Math.abs(cs - bs) > error;
+            if (regression) regressions++;
+            System.out.println(String.format("%-90s %14.3f %14.3f %s %+7.1f%%%s", entry.getKey(), bs, cs, cm.getString("scoreUnit"), change, regression ? " REGRESSION" : ""));
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regressions against " + baselineFile);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ *  BufferedRandomAccessFileBenchmark
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * scanning all lines of a json-lines file with a BufferedRandomAccessFile
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class BufferedRandomAccessFileBenchmark {
+
+    private final static int LINES = 100000;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.file = File.createTempFile("BufferedRandomAccessFileBenchmark", ".jsonl");
+        try (BufferedRandomAccessFile raf = new BufferedRandomAccessFile(this.file, "rw")) {
+            for (int i = 0; i < LINES; i++) {
+                raf.appendLine(("{\"url\":\"http://www.host" + i + ".com/\",\"id\":" + i + ",\"text\":\"some text for line " + i + "\"}").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        this.file.delete();
+    }
+
+    @Benchmark
+    public long scanLines() throws IOException {
+        long c = 0;
+        try (BufferedRandomAccessFile raf = new BufferedRandomAccessFile(this.file, "r")) {
+            BufferedRandomAccessFile.IndexedLine line;
+            while ((line = raf.readIndexedLine()) != null) c += line.getText().length;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ *  DigestBenchmark
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * md5 hex encoding of url strings, once through the md5 cache with a hot set of urls
+ * and once with urls which are always new.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class DigestBenchmark {
+
+    private String[] urls;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        this.urls = new String[1000];
+        for (int i = 0; i < this.urls.length; i++) this.urls[i] = "http://www.host" + i + ".com/some/path/to/a/document_" + i + ".html";
+        this.counter = 0;
+    }
+
+    @Benchmark
+    public String encodeMD5HexCached() {
+        return Digest.encodeMD5Hex(this.urls[ThreadLocalRandom.current().nextInt(this.urls.length)]);
+    }
+
+    @Benchmark
+    public String encodeMD5HexUncached() {
+        return Digest.encodeMD5Hex("http://www.example.com/document_" + (this.counter++) + ".html");
+    }
+}
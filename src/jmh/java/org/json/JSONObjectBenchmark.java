@@ -0,0 +1,85 @@
+/**
+ *  JSONObjectBenchmark
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.json;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * parsing and serialization of a json object which looks like a crawler document
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class JSONObjectBenchmark {
+
+    private String text;
+    private JSONObject object;
+
+    @Setup
+    public void setup() {
+        final JSONObject json = new JSONObject(true);
+        json.put("url_s", "http://www.yacy.net/en/index.html");
+        json.put("title", "YaCy - The Peer to Peer Search Engine");
+        json.put("size_i", 12345);
+        json.put("score_d", 0.75d);
+        json.put("fresh_b", true);
+        final JSONArray links = new JSONArray();
+        for (int i = 0; i < 20; i++) {
+            final JSONObject link = new JSONObject(true);
+            link.put("href", "http://www.yacy.net/page" + i + ".html");
+            link.put("text", "link text number " + i + " with \"quotes\" and unicode äöü");
+            link.put("rel", i % 2 == 0 ? "nofollow" : "follow");
+            links.put(link);
+        }
+        json.put("links", links);
+        this.object = json;
+        this.text = json.toString();
+    }
+
+    @Benchmark
+    public JSONObject parse() {
+        return new JSONObject(this.text);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return this.object.toString();
+    }
+
+    @Benchmark
+    public String serializeIndented() {
+        return this.object.toString(2);
+    }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 
 import javax.servlet.Servlet;
 
+import net.yacy.grid.core.api.info.CachesService;
 import net.yacy.grid.core.api.info.LogService;
 import net.yacy.grid.core.api.info.StatusService;
 import net.yacy.grid.core.api.info.ThreaddumpService;
@@ -46,6 +47,7 @@ public class Core {
             StatusService.class,
             ThreaddumpService.class,
             LogService.class,
+            CachesService.class,
 
             // graphic services
             MapService.class,
@@ -69,6 +71,7 @@ public class Core {
             Log.logger.info("curl http://127.0.0.1:8010/yacy/grid/core/info/status.json");
             Log.logger.info("curl http://127.0.0.1:8010/yacy/grid/core/info/log.txt");
             Log.logger.info("curl http://127.0.0.1:8010/yacy/grid/core/info/threaddump.txt");
+            Log.logger.info("curl http://127.0.0.1:8010/yacy/grid/core/info/caches.json");
             Log.logger.info(new GitTool().toString());
             APIServer.runService(null);
         } catch (IOException e) {
@@ -0,0 +1,55 @@
+/**
+ *  CachesService
+ *  Copyright 17.10.2026 by Michael Peter Christen, @0rb1t3r
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *  
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.core.api.info;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.json.JSONObject;
+
+import net.yacy.grid.http.APIHandler;
+import net.yacy.grid.http.APIServer;
+import net.yacy.grid.http.ObjectAPIHandler;
+import net.yacy.grid.http.Query;
+import net.yacy.grid.http.ServiceResponse;
+import net.yacy.grid.tools.CacheRegistry;
+
+/**
+ * The Caches Service reports size, hit ratio, evictions and estimated memory of all registered caches
+ * call http://localhost:8010/yacy/grid/core/info/caches.json
+ */
+public class CachesService extends ObjectAPIHandler implements APIHandler {
+
+    private static final long serialVersionUID = 2960129736218541947L;
+    public static final String NAME = "caches";
+
+    @Override
+    public String getAPIPath() {
+        return "/yacy/grid/core/info/" + NAME + ".json";
+    }
+
+    @Override
+    public ServiceResponse serviceImpl(Query call, HttpServletResponse response) {
+        JSONObject json = new JSONObject(true);
+        json.put("service", APIServer.getName());
+        json.put("caches", CacheRegistry.toJSON());
+        return new ServiceResponse(json);
+    }
+
+}
@@ -28,6 +28,7 @@ import net.yacy.grid.http.APIServer;
 import net.yacy.grid.http.ObjectAPIHandler;
 import net.yacy.grid.http.Query;
 import net.yacy.grid.http.ServiceResponse;
+import net.yacy.grid.tools.CacheGovernor;
 import net.yacy.grid.tools.OS;
 
 // test: http://localhost:8010/yacy/grid/core/info/status.json
@@ -64,6 +65,7 @@ public class StatusService extends ObjectAPIHandler implements APIHandler {
         client_info.put("request_header", request_header);
         
         json.put("system", system);
+        json.put("cache_governor", CacheGovernor.toJSON());
         json.put("client_info", client_info);
 
         return new ServiceResponse(json);
@@ -25,17 +25,49 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import net.yacy.grid.tools.CacheRegistry;
+import net.yacy.grid.tools.CacheStats;
 
 public class CircleTool {
 
     private static List<int[]> circles = new ArrayList<>();
-    
-    public static void clearcache() {
+    private static final CacheStats stats = new CacheStats();
+    static {
+        CacheRegistry.register("graphics.circles", stats, CircleTool::size, CircleTool::memory, CircleTool::shrink);
+    }
+
+    public static synchronized void clearcache() {
         circles.clear();
     }
 
-    private static int[] getCircleCoords(final short radius) {
-        if (radius - 1 < circles.size()) return circles.get(radius - 1);
+    private static synchronized int size() {
+        return circles.size();
+    }
+
+    private static synchronized long memory() {
+        long m = 0;
+        for (int[] circle: circles) m += 16 + 4 * circle.length;
+        return m;
+    }
+
+    /**
+     * remove the circles with the largest radius; they are computed again when they are needed
+     * @param fraction the share of circles to remove
+     * @return the number of removed circles
+     */
+    private static synchronized int shrink(final double fraction) {
+        int c = (int) Math.ceil(circles.size() * fraction);
+        for (int i = 0; i < c; i++) circles.remove(circles.size() - 1);
+        stats.evict(c);
+        return c;
+    }
+
+    private static synchronized int[] getCircleCoords(final short radius) {
+        if (radius - 1 < circles.size()) {
+            stats.hit();
+            return circles.get(radius - 1);
+        }
+        stats.miss();
 
         // read some lines from known circles
         Set<Integer> crds = new HashSet<>();
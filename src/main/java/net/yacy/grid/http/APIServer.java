@@ -42,6 +42,8 @@ import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
+import net.yacy.grid.tools.ARCSnapshot;
+import net.yacy.grid.tools.CacheGovernor;
 import net.yacy.grid.tools.MapUtil;
 
 /**
@@ -201,6 +203,8 @@ public class APIServer {
         while (true) {
             try {
                 open(service_port + ap, htmlPath);
+                // restore the caches in the background and write snapshots every 10 minutes
+                ARCSnapshot.open(new File(dataInstancePath(data_dir, service_port + ap), "snapshots"), 10L * 60L * 1000L);
                 return service_port + ap;
             } catch (IOException e) {
                 if (force || ap >= 16) {
@@ -255,6 +259,7 @@ public class APIServer {
             }
             server.setHandler(handlerlist2);
             server.start();
+            CacheGovernor.start(10000); // shrink the caches when the heap gets short
         } catch (Throwable e) {
             throw new IOException(e.getMessage());
         }
@@ -265,6 +270,8 @@ public class APIServer {
     }
 
     public static void stop() {
+        CacheGovernor.stop();
+        ARCSnapshot.close();
         try {
             server.stop();
             server.destroy();
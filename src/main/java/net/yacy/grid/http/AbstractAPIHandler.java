@@ -31,6 +31,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.json.JSONObject;
 
 import net.yacy.grid.http.RemoteAccess.FileTypeEncoding;
+import net.yacy.grid.json.JsonBinary;
 
 @SuppressWarnings("serial")
 public abstract class AbstractAPIHandler extends HttpServlet implements APIHandler {
@@ -105,17 +106,17 @@ public abstract class AbstractAPIHandler extends HttpServlet implements APIHandl
                 setCORS(response);
             }
 
-            // write json
-            query.setResponse(response, serviceResponse.getMimeType());
+            // write json; peers which accept the binary encoding get it instead of the text
+            boolean binary = !jsonp && (serviceResponse.isObject() || serviceResponse.isArray()) && JsonBinary.accepts(request.getHeader("Accept"));
+            query.setResponse(response, binary ? JsonBinary.MIME_TYPE : serviceResponse.getMimeType());
             response.setCharacterEncoding("UTF-8");
-            if (serviceResponse.isObject() || serviceResponse.isArray()) {
-                PrintWriter sos = response.getWriter();
-                if (jsonp) sos.print(callback + "(");
-                String out = serviceResponse.toString(minified);
-                sos.print(out);
-                if (jsonp) sos.println(");");
-                sos.println();
-                logClient(startTime, query, 200, "ok: " + (minified ? out : serviceResponse.toString(true)));
+            if (binary) {
+                long bytes = serviceResponse.writeBinaryTo(response.getOutputStream());
+                logClient(startTime, query, 200, "ok: " + (serviceResponse.isObject() ? "object" : "array") + ", " + bytes + " bytes binary");
+            } else if (serviceResponse.isObject() || serviceResponse.isArray()) {
+                // stream the json to the client; the response is not serialized to a string and not again for the log
+                long bytes = serviceResponse.writeTo(response.getOutputStream(), minified, jsonp ? callback : null);
+                logClient(startTime, query, 200, "ok: " + (serviceResponse.isObject() ? "object" : "array") + ", " + bytes + " bytes");
             } else if (serviceResponse.isString()) {
                 PrintWriter sos = response.getWriter();
                 String out = serviceResponse.toString(false);
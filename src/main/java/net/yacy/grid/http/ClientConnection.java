@@ -30,7 +30,6 @@ import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -70,6 +69,8 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
+import net.yacy.grid.json.JsonByteParser;
+
 public class ClientConnection {
 
     public  static final String CHARSET = "UTF-8";
@@ -132,6 +133,19 @@ public class ClientConnection {
      * @throws IOException
      */
     public ClientConnection(String urlstring, Map<String, byte[]> map, boolean useAuthentication) throws ClientProtocolException, IOException {
+        this(urlstring, map, useAuthentication, null);
+    }
+    
+    /**
+     * POST request with an Accept header
+     * @param urlstring
+     * @param map
+     * @param useAuthentication
+     * @param accept the value of the Accept header or null for no header
+     * @throws ClientProtocolException 
+     * @throws IOException
+     */
+    public ClientConnection(String urlstring, Map<String, byte[]> map, boolean useAuthentication, String accept) throws ClientProtocolException, IOException {
         this.request = new HttpPost(urlstring);        
         MultipartEntityBuilder entityBuilder = MultipartEntityBuilder.create();
         entityBuilder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
@@ -140,6 +154,7 @@ public class ClientConnection {
         }
         ((HttpPost) this.request).setEntity(entityBuilder.build());
         this.request.setHeader("User-Agent", ClientIdentification.getAgent(ClientIdentification.yacyInternetCrawlerAgentName).userAgent);
+        if (accept != null) this.request.setHeader("Accept", accept);
         this.init();
     }
     
@@ -338,20 +353,20 @@ public class ClientConnection {
 
     public static JSONArray loadJSONArray(String source_url) throws IOException {
         byte[] b = load(source_url);
-        return new JSONArray(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseArray(b);
     }
     public static JSONArray loadJSONArray(String source_url, Map<String, byte[]> params) throws IOException {
         byte[] b = load(source_url, params);
-        return new JSONArray(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseArray(b);
     }
 
     public static JSONObject loadJSONObject(String source_url) throws IOException {
         byte[] b = load(source_url);
-        return new JSONObject(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseObject(b);
     }
     public static JSONObject loadJSONObject(String source_url, Map<String, byte[]> params) throws IOException {
         byte[] b = load(source_url, params);
-        return new JSONObject(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseObject(b);
     }
 
     public static String loadFromEtherpad(String etherpadUrlstub, String etherpadApikey, String padID) throws IOException {
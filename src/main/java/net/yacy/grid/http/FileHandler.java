@@ -31,8 +31,6 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -46,12 +44,17 @@ import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.util.resource.PathResource;
 import org.eclipse.jetty.util.resource.Resource;
 
+import net.yacy.grid.tools.ARC;
 import net.yacy.grid.tools.ByteBuffer;
+import net.yacy.grid.tools.CacheRegistry;
+import net.yacy.grid.tools.ConcurrentARC;
+import net.yacy.grid.tools.Memory;
 
 
 public class FileHandler extends ResourceHandler implements Handler {
     
     private final long CACHE_LIMIT = 128L * 1024L;
+    private final static long CACHE_WEIGHT_LIMIT = Math.max(4L * 1024L * 1024L, Math.min(256L * 1024L * 1024L, Memory.available() / 10L));
     
     /**
      * create a custom ResourceHandler with more caching
@@ -59,6 +62,7 @@ public class FileHandler extends ResourceHandler implements Handler {
      */
     public FileHandler() {
         //this.setMinMemoryMappedContentLength((int) CACHE_LIMIT);
+        CacheRegistry.register("http.resources", this.resourceCache, 0);
     }
     
     @Override
@@ -124,7 +128,7 @@ public class FileHandler extends ResourceHandler implements Handler {
             CacheResource cache = resourceCache.get(f);
             if (cache != null) return cache;
             if (f.length() < CACHE_LIMIT || f.getName().endsWith(".html") || path.equals("/")) {
-                cache = new CacheResource((PathResource) resource);
+                cache = new CacheResource((PathResource) resource, f);
                 resourceCache.put(f, cache);
                 return cache;
             }
@@ -135,18 +139,20 @@ public class FileHandler extends ResourceHandler implements Handler {
         return null;
     }
 
-    private final Map<File, CacheResource> resourceCache = new ConcurrentHashMap<>();
+    // the resource cache is bounded by the number of cached bytes, not by the number of files
+    private final ARC<File, CacheResource> resourceCache = new ConcurrentARC<>(CACHE_WEIGHT_LIMIT, 4, (f, r) -> r.length());
     private final static byte[] SSI_START = "<!--#include file=\"".getBytes();
     private final static byte[] SSI_END   = "\" -->".getBytes();
     
-    private static class CacheResource extends Resource {
+    private class CacheResource extends Resource {
 
         private byte[] buffer;
         private long lastModified;
-        private File file;
+        private File file, key;
         private List<File> includes;
         
-        public CacheResource(PathResource pathResource) throws IOException {
+        public CacheResource(PathResource pathResource, File key) throws IOException {
+            this.key = key;
             this.file = pathResource.getFile();
             if (this.file.isDirectory()) this.file = new File(this.file, "index.html");
             this.includes = new ArrayList<>(8);
@@ -161,6 +167,12 @@ public class FileHandler extends ResourceHandler implements Handler {
             this.lastModified = nextLastModified;
         }
         
+        private void reload(long nextLastModified) throws IOException {
+            initCache(nextLastModified);
+            // the weight of the cache entry is the length of the buffer: put it again to compute the new weight
+            resourceCache.put(this.key, this);
+        }
+        
         private byte[] insertSSI(byte[] b) throws IOException {
             this.includes.clear();
             for (int p = findSSI_start(b, 0); p >= 0; p = findSSI_start(b, p)) {
@@ -214,7 +226,7 @@ public class FileHandler extends ResourceHandler implements Handler {
         @Override
         public long lastModified() {
             long l = actualLastModified();
-            if (actualLastModified() > this.lastModified) try {initCache(l);} catch (IOException e) {}
+            if (actualLastModified() > this.lastModified) try {reload(l);} catch (IOException e) {}
             this.lastModified = l;
             return this.lastModified;
         }
@@ -227,7 +239,7 @@ public class FileHandler extends ResourceHandler implements Handler {
         @Override
         public InputStream getInputStream() throws IOException {
             long l = actualLastModified();
-            if (actualLastModified() > this.lastModified) initCache(l);
+            if (actualLastModified() > this.lastModified) reload(l);
             return new ByteArrayInputStream(this.buffer);
         }
 
@@ -31,6 +31,9 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
+import net.yacy.grid.json.JsonBinary;
+import net.yacy.grid.json.JsonByteParser;
+
 public abstract class ObjectAPIHandler extends AbstractAPIHandler implements APIHandler {
 
     private static final long serialVersionUID = -2191240526448018368L;
@@ -45,6 +48,19 @@ public abstract class ObjectAPIHandler extends AbstractAPIHandler implements API
     public static final String DELIVERY_TAG  = "deliveryTag";
     public static final String AVAILABLE_KEY = "available";
     
+    // the Accept header for requests to other services if the binary json transport is switched on
+    private static final String ACCEPT_BINARY = JsonBinary.MIME_TYPE + ", application/javascript;q=0.9, */*;q=0.8";
+    private static volatile boolean binaryTransport = false;
+    
+    /**
+     * switch the binary json encoding for responses of other services on or off. If switched on, requests
+     * accept JsonBinary.MIME_TYPE; services which do not know it still answer with text json.
+     * @param binary
+     */
+    public static void setBinaryTransport(boolean binary) {
+        binaryTransport = binary;
+    }
+    
     /**
      * helper method to implement serviceImpl
      * @param params
@@ -89,7 +105,7 @@ public abstract class ObjectAPIHandler extends AbstractAPIHandler implements API
         return doConnection(connection);
         */
         String urlstring = protocolhostportstub + this.getAPIPath();
-        ClientConnection connection = new ClientConnection(urlstring, json2map(params));
+        ClientConnection connection = new ClientConnection(urlstring, json2map(params), true, binaryTransport ? ACCEPT_BINARY : null);
         return doConnection(connection);
     }
     
@@ -98,7 +114,7 @@ public abstract class ObjectAPIHandler extends AbstractAPIHandler implements API
      */
     public ServiceResponse serviceImpl(final String protocolhostportstub, Map<String, byte[]> params) throws IOException {
         String urlstring = protocolhostportstub + this.getAPIPath();
-        ClientConnection connection = new ClientConnection(urlstring, params);
+        ClientConnection connection = new ClientConnection(urlstring, params, true, binaryTransport ? ACCEPT_BINARY : null);
         return doConnection(connection);
     }
     
@@ -107,12 +123,16 @@ public abstract class ObjectAPIHandler extends AbstractAPIHandler implements API
         String mime = connection.getContentType().getMimeType(); //application/javascript, application/octet-stream
         byte[] b = connection.load();
         if (b.length == 0) throw new IOException("response empty");
-        if (mime.indexOf("javascript") >= 0) {
+        if (JsonBinary.MIME_TYPE.equals(mime) && JsonBinary.isBinary(b)) {
+            Object json = JsonBinary.decode(b, 0, b.length, null);
+            return json instanceof JSONArray ? new ServiceResponse((JSONArray) json) : new ServiceResponse((JSONObject) json);
+        } else if (mime.indexOf("javascript") >= 0) {
+            boolean utf8 = charset == null || StandardCharsets.UTF_8.equals(charset);
             if (b.length > 0 && b[0] == (byte) '[') {
-                JSONArray json = new JSONArray(new JSONTokener(new String(b, charset == null ? StandardCharsets.UTF_8 : charset)));
+                JSONArray json = utf8 ? JsonByteParser.parseArray(b) : new JSONArray(new JSONTokener(new String(b, charset)));
                 return new ServiceResponse(json);
             } else {
-                JSONObject json = new JSONObject(new JSONTokener(new String(b, charset == null ? StandardCharsets.UTF_8 : charset)));
+                JSONObject json = utf8 ? JsonByteParser.parseObject(b) : new JSONObject(new JSONTokener(new String(b, charset)));
                 return new ServiceResponse(json);
             }
         } else {
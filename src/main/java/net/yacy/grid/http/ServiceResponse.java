@@ -19,6 +19,8 @@
 
 package net.yacy.grid.http;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 import org.json.JSONArray;
@@ -26,6 +28,9 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import net.yacy.grid.graphics.RasterPlotter;
+import net.yacy.grid.json.JsonBinary;
+import net.yacy.grid.json.JsonByteWriter;
+import net.yacy.grid.tools.ByteBuffer;
 
 /**
  * wrapper class for the result type of services: either
@@ -33,6 +38,8 @@ import net.yacy.grid.graphics.RasterPlotter;
  */
 public class ServiceResponse {
 
+    private final static int BUFFER_SIZE = JsonByteWriter.CHUNK_SIZE + 4096; // a chunk and the end of the member which fills it
+
     private Object object;
     private boolean setCORS;
     private boolean isImage;
@@ -128,18 +135,64 @@ public class ServiceResponse {
     }
     
     public String toString(boolean minified) {
-        if (isObject()) return getObject().toString(minified ? 0 : 2);
-        if (isArray()) return getArray().toString(minified ? 0 : 2);
+        if (isObject() || isArray()) return new String(toByteArray(minified), StandardCharsets.UTF_8);
         if (isString()) return getString();
         if (isByteArray()) return new String((byte[]) this.object, StandardCharsets.UTF_8);
         return null;
     }
     
     public byte[] toByteArray(boolean minified) {
-        if (isObject()) return getObject().toString(minified ? 0 : 2).getBytes(StandardCharsets.UTF_8);
-        if (isArray()) return getArray().toString(minified ? 0 : 2).getBytes(StandardCharsets.UTF_8);
+        if (isObject()) return JsonByteWriter.toBytes(getObject(), minified ? 0 : 2);
+        if (isArray()) return JsonByteWriter.toBytes(getArray(), minified ? 0 : 2);
         if (isString()) return getString().getBytes(StandardCharsets.UTF_8);
         if (isByteArray()) return (byte[]) this.object;
         return null;
     }
+
+    /**
+     * write the response as UTF-8 to a stream. The json is serialized into a byte buffer which is written to the
+     * stream in chunks of JsonByteWriter.CHUNK_SIZE bytes, without a Writer and without a string of the response.
+     * Only objects and arrays are written; other types must be written with getString() or getByteArray().
+     * The stream is flushed but not closed.
+     * @param os the target stream, i.e. the servlet output stream
+     * @param minified if true, the json is written without whitespace, otherwise with an indentation of 2
+     * @param callback a jsonp callback function name or null
+     * @return the number of written bytes
+     * @throws IOException
+     */
+    public long writeTo(OutputStream os, boolean minified, String callback) throws IOException {
+        if (!isObject() && !isArray()) throw new JSONException("object type is not JSONObject or JSONArray: " + this.object.getClass().getName());
+        final ByteBuffer bb = new ByteBuffer(BUFFER_SIZE);
+        final boolean jsonp = callback != null && callback.length() > 0;
+        if (jsonp) {
+            JsonByteWriter.utf8(bb, callback);
+            bb.append('(');
+        }
+        long count = JsonByteWriter.writeValue(os, bb, this.object, minified ? 0 : 2);
+        if (jsonp) {
+            bb.append(')');
+            bb.append(';');
+            bb.append('\n');
+        }
+        bb.append('\n');
+        count += bb.length();
+        bb.writeTo(os);
+        return count;
+    }
+
+    /**
+     * write the response in the binary json encoding to a stream, for clients which accept JsonBinary.MIME_TYPE.
+     * Only objects and arrays are written, in chunks as with writeTo. The stream is flushed but not closed.
+     * @param os the target stream
+     * @return the number of written bytes
+     * @throws IOException
+     */
+    public long writeBinaryTo(OutputStream os) throws IOException {
+        if (!isObject() && !isArray()) throw new JSONException("object type is not JSONObject or JSONArray: " + this.object.getClass().getName());
+        final ByteBuffer bb = new ByteBuffer(BUFFER_SIZE);
+        long count = JsonBinary.write(os, bb, this.object);
+        count += bb.length();
+        bb.writeTo(os);
+        return count;
+    }
 }
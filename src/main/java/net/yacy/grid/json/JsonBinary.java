@@ -0,0 +1,526 @@
+/**
+ *  JsonBinary
+ *  a compact binary encoding of json objects and arrays
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONString;
+import org.json.JSONTokener;
+import org.json.KeyTable;
+
+import net.yacy.grid.tools.ByteBuffer;
+
+/**
+ * JsonBinary is a compact binary encoding of the JSONObject/JSONArray model for dump records and for the
+ * transport between services which both speak it. A document is the header bytes 0xB1 'J' 0x01 followed by
+ * one value. Every value starts with a tag byte:
+ * <pre>
+ * 0x00 null, 0x01 false, 0x02 true
+ * 0x03 integer:  zigzag varint, decoded as Integer if it fits, otherwise as Long
+ * 0x04 double:   8 bytes, big endian IEEE 754
+ * 0x05 string:   varint byte length, UTF-8 bytes
+ * 0x06 object:   varint count, count times a key and a value
+ * 0x07 array:    varint count, count values
+ * </pre>
+ * A key is a varint k: if k is even, the key follows as k/2 UTF-8 bytes and is appended to the key table of the
+ * document; if k is odd, it is the key at position k/2 in the key table. The table holds the first MAX_KEYS keys
+ * of a document, so repeated keys in arrays of objects are written only once.
+ * Numbers are encoded with the type which the value gets when it is written as text and parsed again: a double
+ * with an integral value below 1e7 is an integer, a float is the double of its decimal text, and other numbers
+ * are converted through their text. A decoded document is therefore equal to a parsed text document.
+ * The first header byte can not be the first byte of a json text in UTF-8, so both encodings can be
+ * distinguished with isBinary().
+ */
+public final class JsonBinary {
+
+    public final static String MIME_TYPE = "application/x-yacy-json-binary";
+
+    public final static int MAX_KEYS = 1024;
+
+    private final static byte[] HEADER = new byte[]{(byte) 0xB1, 'J', 1};
+    private final static byte NULL = 0, FALSE = 1, TRUE = 2, INTEGER = 3, DOUBLE = 4, STRING = 5, OBJECT = 6, ARRAY = 7;
+
+    // records in line-based dump files must not contain line breaks; these bytes are escaped
+    private final static byte ESC = 0x1B;
+
+    private final static Pattern NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+
+    /**
+     * check if bytes are a binary document
+     * @param b the bytes
+     * @param off the start of the document
+     * @param len the length of the document
+     * @return true if the bytes start with the binary header
+     */
+    public static boolean isBinary(final byte[] b, final int off, final int len) {
+        return len >= HEADER.length && b[off] == HEADER[0] && b[off + 1] == HEADER[1] && b[off + 2] == HEADER[2];
+    }
+
+    public static boolean isBinary(final byte[] b) {
+        return isBinary(b, 0, b.length);
+    }
+
+    /**
+     * check if the binary encoding is accepted by a client
+     * @param accept the value of an Accept request header, may be null
+     * @return true if the header names the binary mime type
+     */
+    public static boolean accepts(final String accept) {
+        return accept != null && accept.indexOf(MIME_TYPE) >= 0;
+    }
+
+    public static byte[] encode(final JSONObject json) throws JSONException {
+        final ByteBuffer bb = JsonByteWriter.buffer();
+        write(bb, json);
+        final byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        return b;
+    }
+
+    public static byte[] encode(final JSONArray json) throws JSONException {
+        final ByteBuffer bb = JsonByteWriter.buffer();
+        write(bb, json);
+        final byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        return b;
+    }
+
+    /**
+     * append a document to a buffer
+     * @param bb the target
+     * @param value a JSONObject or JSONArray
+     */
+    public static void write(final ByteBuffer bb, final Object value) throws JSONException {
+        bb.append(HEADER);
+        new Encoder(bb, null).value(value);
+    }
+
+    /**
+     * write a document to a stream in chunks: whenever the buffer holds JsonByteWriter.CHUNK_SIZE bytes or more
+     * at the end of a member or an array element, it is written to the stream and cleared. The end of the document
+     * remains in the buffer and must be written by the caller. The buffer must not be the buffer() of the thread.
+     * @param os the target stream
+     * @param bb the buffer which holds the bytes before they are written
+     * @param value a JSONObject or JSONArray
+     * @return the number of bytes which were written to the stream
+     * @throws IOException
+     */
+    public static long write(final OutputStream os, final ByteBuffer bb, final Object value) throws IOException {
+        bb.append(HEADER);
+        final Encoder encoder = new Encoder(bb, os);
+        try {
+            encoder.value(value);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return encoder.written;
+    }
+
+    /**
+     * append an object as document, with an additional first key; this is used to mark records in dumps
+     * @param bb the target
+     * @param key0 the first key, must not be a key of the json
+     * @param value0 the value of the first key
+     * @param json the object
+     */
+    public static void write(final ByteBuffer bb, final String key0, final Object value0, final JSONObject json) throws JSONException {
+        bb.append(HEADER);
+        final Encoder encoder = new Encoder(bb, null);
+        bb.append(OBJECT);
+        encoder.varint(json.length() + 1);
+        encoder.key(key0);
+        encoder.value(value0);
+        encoder.members(json);
+    }
+
+    /**
+     * encode an object as a line in a dump file: the document is escaped so that it does not contain
+     * the bytes '\n' and '\r'
+     * @param json the object
+     * @param key0 an additional first key or null
+     * @param value0 the value of the first key
+     * @return the line without the line break
+     */
+    public static byte[] encodeLine(final JSONObject json, final String key0, final Object value0) throws JSONException {
+        final ByteBuffer bb = JsonByteWriter.buffer();
+        if (key0 == null) write(bb, json); else write(bb, key0, value0, json);
+        final byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        int escapes = 0;
+        for (int i = 0; i < b.length; i++) if (b[i] == '\n' || b[i] == '\r' || b[i] == ESC) escapes++;
+        if (escapes == 0) return b;
+        final byte[] e = new byte[b.length + escapes];
+        int p = 0;
+        for (int i = 0; i < b.length; i++) {
+            final byte c = b[i];
+            if (c == '\n' || c == '\r' || c == ESC) {
+                e[p++] = ESC;
+                e[p++] = (byte) (c ^ 0x80);
+            } else {
+                e[p++] = c;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * decode a line which was written with encodeLine
+     * @param b the line without the line break
+     * @param keys a key table for the keys of the objects or null
+     * @return the object
+     */
+    public static JSONObject decodeLine(byte[] b, final KeyTable keys) throws JSONException {
+        int escapes = 0;
+        for (int i = 0; i < b.length; i++) if (b[i] == ESC) escapes++;
+        if (escapes > 0) {
+            final byte[] d = new byte[b.length - escapes];
+            int p = 0;
+            for (int i = 0; i < b.length; i++) {
+                if (b[i] == ESC) {
+                    if (++i == b.length) throw new JSONException("truncated escape at " + i);
+                    d[p++] = (byte) (b[i] ^ 0x80);
+                } else {
+                    d[p++] = b[i];
+                }
+            }
+            b = d;
+        }
+        return decodeObject(b, 0, b.length, keys);
+    }
+
+    /**
+     * decode a document
+     * @param b the bytes
+     * @param off the start of the document
+     * @param len the length of the document
+     * @param keys a key table for the keys of the objects or null
+     * @return a JSONObject or JSONArray
+     */
+    public static Object decode(final byte[] b, final int off, final int len, final KeyTable keys) throws JSONException {
+        if (!isBinary(b, off, len)) throw new JSONException("not a binary json document");
+        final Decoder decoder = new Decoder(b, off + HEADER.length, off + len, keys);
+        final Object value = decoder.value();
+        if (decoder.p != decoder.end) throw decoder.error("trailing bytes after document");
+        return value;
+    }
+
+    public static JSONObject decodeObject(final byte[] b, final int off, final int len, final KeyTable keys) throws JSONException {
+        final Object value = decode(b, off, len, keys);
+        if (value instanceof JSONObject) return (JSONObject) value;
+        throw new JSONException("binary json document is not an object");
+    }
+
+    public static JSONObject decodeObject(final byte[] b) throws JSONException {
+        return decodeObject(b, 0, b.length, null);
+    }
+
+    public static JSONArray decodeArray(final byte[] b, final int off, final int len, final KeyTable keys) throws JSONException {
+        final Object value = decode(b, off, len, keys);
+        if (value instanceof JSONArray) return (JSONArray) value;
+        throw new JSONException("binary json document is not an array");
+    }
+
+    public static JSONArray decodeArray(final byte[] b) throws JSONException {
+        return decodeArray(b, 0, b.length, null);
+    }
+
+    private final static class Encoder {
+
+        private final ByteBuffer bb;
+        private final OutputStream os; // if not null, the buffer is written to the stream in chunks
+        private long written;
+        private Map<String, Integer> keys; // allocated with the first key
+
+        private Encoder(final ByteBuffer bb, final OutputStream os) {
+            this.bb = bb;
+            this.os = os;
+            this.written = 0;
+            this.keys = null;
+        }
+
+        private void spill() {
+            if (this.os == null || this.bb.length() < JsonByteWriter.CHUNK_SIZE) return;
+            try {
+                this.bb.writeTo(this.os);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.written += this.bb.length();
+            this.bb.clear();
+        }
+
+        private void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                this.bb.append((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            this.bb.append((byte) v);
+        }
+
+        private void integer(final long v) {
+            this.bb.append(INTEGER);
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        private void string(final String s) {
+            final int len = s.length();
+            int i = 0;
+            while (i < len && s.charAt(i) < 128) i++;
+            if (i == len) {
+                varint(len);
+                this.bb.appendASCII(s, 0, len);
+            } else {
+                final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                varint(b.length);
+                this.bb.append(b);
+            }
+        }
+
+        private void key(final String key) {
+            if (this.keys == null) this.keys = new HashMap<>();
+            final Integer i = this.keys.get(key);
+            if (i != null) {
+                varint((i.intValue() << 1) | 1);
+                return;
+            }
+            if (this.keys.size() < MAX_KEYS) this.keys.put(key, this.keys.size());
+            final int len = key.length();
+            int j = 0;
+            while (j < len && key.charAt(j) < 128) j++;
+            if (j == len) {
+                varint(len << 1);
+                this.bb.appendASCII(key, 0, len);
+            } else {
+                final byte[] b = key.getBytes(StandardCharsets.UTF_8);
+                varint(b.length << 1);
+                this.bb.append(b);
+            }
+        }
+
+        private void members(final JSONObject json) throws JSONException {
+            for (final String key: json.keySet()) {
+                key(key);
+                value(json.opt(key));
+                spill();
+            }
+        }
+
+        private void value(final Object value) throws JSONException {
+            if (value == null || value.equals(null)) {
+                this.bb.append(NULL);
+            } else if (value instanceof String) {
+                this.bb.append(STRING);
+                string((String) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                integer(((Number) value).longValue());
+            } else if (value instanceof Double) {
+                final double d = ((Double) value).doubleValue();
+                JSONObject.testValidity(value);
+                if (d == Math.rint(d) && Math.abs(d) < 1e7 && !(d == 0.0d && 1.0d / d < 0)) {
+                    // the text of this double has no fraction and is parsed as integer
+                    integer((long) d);
+                } else {
+                    this.bb.append(DOUBLE);
+                    final long l = Double.doubleToLongBits(d);
+                    for (int s = 56; s >= 0; s -= 8) this.bb.append((byte) (l >>> s));
+                }
+            } else if (value instanceof JSONObject) {
+                final JSONObject json = (JSONObject) value;
+                this.bb.append(OBJECT);
+                varint(json.length());
+                members(json);
+            } else if (value instanceof JSONArray) {
+                final JSONArray json = (JSONArray) value;
+                final int length = json.length();
+                this.bb.append(ARRAY);
+                varint(length);
+                for (int i = 0; i < length; i++) {
+                    value(json.opt(i));
+                    spill();
+                }
+            } else if (value instanceof Boolean) {
+                this.bb.append(((Boolean) value).booleanValue() ? TRUE : FALSE);
+            } else if (value instanceof JSONString) {
+                Object o;
+                try {
+                    o = ((JSONString) value).toJSONString();
+                } catch (Exception e) {
+                    throw new JSONException(e);
+                }
+                value(o == null ? value.toString() : new JSONTokener(o.toString()).nextValue());
+            } else if (value instanceof Number) {
+                // floats and big numbers get the type of their text after parsing
+                final String s = JSONObject.numberToString((Number) value);
+                value(NUMBER_PATTERN.matcher(s).matches() ? JSONObject.stringToValue(s) : s);
+            } else if (value instanceof Enum<?>) {
+                this.bb.append(STRING);
+                string(((Enum<?>) value).name());
+            } else if (value instanceof Map) {
+                value(new JSONObject((Map<?, ?>) value));
+            } else if (value instanceof Collection) {
+                value(new JSONArray((Collection<?>) value));
+            } else if (value.getClass().isArray()) {
+                value(new JSONArray(value));
+            } else {
+                this.bb.append(STRING);
+                string(value.toString());
+            }
+        }
+    }
+
+    private final static class Decoder {
+
+        private final byte[] b;
+        private final int end;
+        private final KeyTable keyTable;
+        private int p;
+        private String[] keys;
+        private int keyCount;
+
+        private Decoder(final byte[] b, final int off, final int end, final KeyTable keyTable) {
+            this.b = b;
+            this.p = off;
+            this.end = end;
+            this.keyTable = keyTable;
+            this.keys = null;
+            this.keyCount = 0;
+        }
+
+        private JSONException error(final String message) {
+            return new JSONException(message + " at " + this.p);
+        }
+
+        private long varint() throws JSONException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (this.p >= this.end) throw error("truncated varint");
+                final byte c = this.b[this.p++];
+                v |= (long) (c & 0x7F) << shift;
+                if (c >= 0) return v;
+            }
+            throw error("varint too long");
+        }
+
+        private int length() throws JSONException {
+            final long l = varint();
+            if (l < 0 || l > this.end - this.p) throw error("length " + l + " exceeds document");
+            return (int) l;
+        }
+
+        private String string(final int len) {
+            final int s = this.p;
+            boolean ascii = true;
+            for (int i = s; i < s + len; i++) if (this.b[i] < 0) {ascii = false; break;}
+            this.p += len;
+            return new String(this.b, s, len, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+
+        private String key() throws JSONException {
+            final long k = varint();
+            if ((k & 1) == 1) {
+                final long i = k >>> 1;
+                if (i >= this.keyCount) throw error("unknown key reference " + i);
+                return this.keys[(int) i];
+            }
+            final long len = k >>> 1;
+            if (len > this.end - this.p) throw error("length " + len + " exceeds document");
+            final String key;
+            if (this.keyTable == null) {
+                key = string((int) len);
+            } else {
+                int i = this.p;
+                while (i < this.p + len && this.b[i] >= 0) i++;
+                if (i == this.p + len) {
+                    key = this.keyTable.intern(this.b, this.p, (int) len);
+                    this.p += len;
+                } else {
+                    key = this.keyTable.intern(string((int) len));
+                }
+            }
+            if (this.keyCount < MAX_KEYS) {
+                if (this.keys == null) this.keys = new String[16];
+                else if (this.keyCount == this.keys.length) {
+                    final String[] k1 = new String[this.keys.length * 2];
+                    System.arraycopy(this.keys, 0, k1, 0, this.keyCount);
+                    this.keys = k1;
+                }
+                this.keys[this.keyCount++] = key;
+            }
+            return key;
+        }
+
+        private Object value() throws JSONException {
+            if (this.p >= this.end) throw error("truncated document");
+            final byte tag = this.b[this.p++];
+            switch (tag) {
+            case NULL:
+                return JSONObject.NULL;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INTEGER: {
+                final long z = varint();
+                final long v = (z >>> 1) ^ -(z & 1);
+                if (v == (int) v) return Integer.valueOf((int) v);
+                return Long.valueOf(v);
+            }
+            case DOUBLE: {
+                if (this.end - this.p < 8) throw error("truncated double");
+                long l = 0;
+                for (int i = 0; i < 8; i++) l = (l << 8) | (this.b[this.p++] & 0xFF);
+                return Double.valueOf(Double.longBitsToDouble(l));
+            }
+            case STRING:
+                return string(length());
+            case OBJECT: {
+                final int count = length();
+                final JSONObject json = new JSONObject(true);
+                for (int i = 0; i < count; i++) {
+                    final String key = key();
+                    if (json.has(key)) throw error("Duplicate key \"" + key + "\"");
+                    json.put(key, value());
+                }
+                return json;
+            }
+            case ARRAY: {
+                final int count = length();
+                final JSONArray json = new JSONArray();
+                for (int i = 0; i < count; i++) json.put(value());
+                return json;
+            }
+            default:
+                throw error("unknown tag " + tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,499 @@
+/**
+ *  JsonByteParser
+ *  a json parser for UTF-8 encoded bytes
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.KeyTable;
+import org.json.NumberScanner;
+
+/**
+ * A json parser which reads UTF-8 encoded bytes directly, without decoding the whole input to a String
+ * and without a Reader. Only the strings which become keys or values are decoded; a string without escapes
+ * is decoded in one step from the input bytes. The result is the same as from new JSONObject(new JSONTokener(..))
+ * or new JSONArray(new JSONTokener(..)): objects keep the order of their keys, duplicate keys are rejected, the
+ * same lenient syntax (single quotes, unquoted values, ';' as separator in objects, empty array elements) is accepted
+ * and bytes after the parsed value are ignored.
+ * Values can also be skipped without creating them and objects and arrays can be searched for a key or an index,
+ * so that a single value can be extracted from a large document.
+ * A JsonByteParser instance is not thread-safe; the static methods can be used concurrently.
+ */
+public final class JsonByteParser {
+
+    // bytes which terminate an unquoted value, the same set as in JSONTokener.nextValue()
+    private final static boolean[] STOP = new boolean[256];
+    static {
+        for (int i = 0; i < ' '; i++) STOP[i] = true;
+        for (char c: ",:]}/\\\"[{;=#".toCharArray()) STOP[c] = true;
+    }
+
+    private final byte[] b;
+    private final int start, end;
+    private int p;
+    private KeyTable keys;
+    private final NumberScanner.ByteChars chars = new NumberScanner.ByteChars();
+
+    public JsonByteParser(final byte[] b, final int off, final int len) {
+        this.b = b;
+        this.start = off;
+        this.end = off + len;
+        this.p = off;
+        this.keys = null;
+    }
+
+    /**
+     * intern the keys of all parsed objects. Records with the same keys then share one String
+     * instance for each key and keys are only decoded if they are not already in the table.
+     * @param keys a key table, i.e. KeyTable.SHARED, or null to switch off interning
+     * @return this
+     */
+    public JsonByteParser setKeyTable(final KeyTable keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    public static JSONObject parseObject(final byte[] b) throws JSONException {
+        return new JsonByteParser(b, 0, b.length).nextObject();
+    }
+
+    public static JSONObject parseObject(final byte[] b, final int off, final int len) throws JSONException {
+        return new JsonByteParser(b, off, len).nextObject();
+    }
+
+    public static JSONObject parseObject(final ByteBuffer bb) throws JSONException {
+        return parser(bb).nextObject();
+    }
+
+    public static JSONArray parseArray(final byte[] b) throws JSONException {
+        return new JsonByteParser(b, 0, b.length).nextArray();
+    }
+
+    public static JSONArray parseArray(final byte[] b, final int off, final int len) throws JSONException {
+        return new JsonByteParser(b, off, len).nextArray();
+    }
+
+    public static JSONArray parseArray(final ByteBuffer bb) throws JSONException {
+        return parser(bb).nextArray();
+    }
+
+    /**
+     * parse any json value
+     * @param b the UTF-8 encoded json
+     * @return a JSONObject, JSONArray, String, Boolean, Number or JSONObject.NULL
+     * @throws JSONException
+     */
+    public static Object parse(final byte[] b) throws JSONException {
+        return new JsonByteParser(b, 0, b.length).nextValue();
+    }
+
+    /**
+     * create a parser for the remaining bytes of a ByteBuffer. The position of the buffer is not changed.
+     * A heap buffer is parsed in place, a direct buffer is copied once.
+     */
+    private static JsonByteParser parser(final ByteBuffer bb) {
+        if (bb.hasArray()) return new JsonByteParser(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+        final byte[] b = new byte[bb.remaining()];
+        bb.duplicate().get(b);
+        return new JsonByteParser(b, 0, b.length);
+    }
+
+    /**
+     * @return the number of bytes which had been consumed so far
+     */
+    public int consumed() {
+        return this.p - this.start;
+    }
+
+    private JSONException syntaxError(final String message) {
+        return new JSONException(message + " at " + (this.p - this.start));
+    }
+
+    /**
+     * skip whitespace
+     * @return the next byte which is not whitespace, without consuming it, or 0 at the end of the input
+     */
+    private int peekClean() {
+        while (this.p < this.end) {
+            final int c = this.b[this.p] & 0xff;
+            if (c > ' ') return c;
+            this.p++;
+        }
+        return 0;
+    }
+
+    private int nextClean() {
+        final int c = peekClean();
+        if (c != 0) this.p++;
+        return c;
+    }
+
+    public JSONObject nextObject() throws JSONException {
+        if (nextClean() != '{') throw syntaxError("A JSONObject text must begin with '{'");
+        final JSONObject json = new JSONObject(true);
+        for (;;) {
+            final int c = peekClean();
+            final String key;
+            switch (c) {
+            case 0:
+                throw syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                this.p++;
+                return json;
+            case '"':
+            case '\'':
+                this.p++;
+                key = this.keys == null ? nextString((byte) c) : nextKey((byte) c);
+                break;
+            default:
+                key = this.keys == null ? nextValue().toString() : this.keys.intern(nextValue().toString());
+            }
+
+            // The key is followed by ':'.
+            if (nextClean() != ':') throw syntaxError("Expected a ':' after a key");
+            if (json.has(key)) throw syntaxError("Duplicate key \"" + key + "\"");
+            json.put(key, nextValue());
+
+            // Pairs are separated by ','.
+            switch (nextClean()) {
+            case ';':
+            case ',':
+                if (peekClean() == '}') {
+                    this.p++;
+                    return json;
+                }
+                break;
+            case '}':
+                return json;
+            default:
+                throw syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    public JSONArray nextArray() throws JSONException {
+        if (nextClean() != '[') throw syntaxError("A JSONArray text must start with '['");
+        final JSONArray json = new JSONArray();
+        int c = peekClean();
+        if (c == 0) throw syntaxError("Expected a ',' or ']'");
+        if (c == ']') {
+            this.p++;
+            return json;
+        }
+        for (;;) {
+            json.put(peekClean() == ',' ? JSONObject.NULL : nextValue());
+            switch (nextClean()) {
+            case ',':
+                c = peekClean();
+                if (c == 0) throw syntaxError("Expected a ',' or ']'");
+                if (c == ']') {
+                    this.p++;
+                    return json;
+                }
+                break;
+            case ']':
+                return json;
+            default:
+                throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    public Object nextValue() throws JSONException {
+        final int c = peekClean();
+        switch (c) {
+        case '"':
+        case '\'':
+            this.p++;
+            return nextString((byte) c);
+        case '{':
+            return nextObject();
+        case '[':
+            return nextArray();
+        }
+
+        // unquoted text: true, false, null, a number or a non-standard form
+        int s = this.p;
+        while (this.p < this.end && !STOP[this.b[this.p] & 0xff]) this.p++;
+        int e = this.p;
+        while (s < e && (this.b[s] & 0xff) <= ' ') s++;
+        while (e > s && (this.b[e - 1] & 0xff) <= ' ') e--;
+        if (s == e) throw syntaxError("Missing value");
+        if (e - s == 4 && this.b[s] == 't' && this.b[s + 1] == 'r' && this.b[s + 2] == 'u' && this.b[s + 3] == 'e') return Boolean.TRUE;
+        if (e - s == 4 && this.b[s] == 'n' && this.b[s + 1] == 'u' && this.b[s + 2] == 'l' && this.b[s + 3] == 'l') return JSONObject.NULL;
+        if (e - s == 5 && this.b[s] == 'f' && this.b[s + 1] == 'a' && this.b[s + 2] == 'l' && this.b[s + 3] == 's' && this.b[s + 4] == 'e') return Boolean.FALSE;
+        final int c0 = this.b[s];
+        if ((c0 >= '0' && c0 <= '9') || c0 == '-') {
+            // convert numbers directly from the bytes
+            final Number n = NumberScanner.scan(this.chars.set(this.b, s, e - s));
+            if (n != null) return n;
+        }
+        return JSONObject.stringToValue(new String(this.b, s, e - s, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * skip the next value without creating it. The skipped bytes are only checked for the balance of
+     * brackets and the termination of strings, not for a complete json syntax.
+     */
+    public void skipValue() throws JSONException {
+        int c = peekClean();
+        if (c == 0) throw syntaxError("Missing value");
+        if (c != '{' && c != '[' && c != '"' && c != '\'') {
+            while (this.p < this.end && !STOP[this.b[this.p] & 0xff]) this.p++;
+            return;
+        }
+        final int open = c;
+        int depth = 0;
+        while (this.p < this.end) {
+            c = this.b[this.p++];
+            switch (c) {
+            case '"':
+            case '\'':
+                skipString((byte) c);
+                break;
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+            case ']':
+                depth--;
+                break;
+            }
+            if (depth == 0) return;
+        }
+        throw syntaxError(open == '{' ? "A JSONObject text must end with '}'" : "Expected a ',' or ']'");
+    }
+
+    /**
+     * skip a string up to the closing quote; the opening quote has already been consumed
+     */
+    private void skipString(final byte quote) throws JSONException {
+        while (this.p < this.end) {
+            final byte c = this.b[this.p++];
+            if (c == quote) return;
+            if (c == '\\') this.p++;
+            else if (c == '\n' || c == '\r' || c == 0) break;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * enter the object at the current position and move to the value of the given key. All other values
+     * are skipped without creating them, keys are compared without decoding them unless they contain escapes.
+     * @param key the key to find
+     * @return true if the key was found; the next value is then the value of the key.
+     *   false if the object has no such key; the object is then consumed completely.
+     * @throws JSONException if the next value is not an object
+     */
+    public boolean seekKey(final String key) throws JSONException {
+        if (nextClean() != '{') throw syntaxError("A JSONObject text must begin with '{'");
+        final byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        for (;;) {
+            final int c = peekClean();
+            final boolean match;
+            switch (c) {
+            case 0:
+                throw syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                this.p++;
+                return false;
+            case '"':
+            case '\'':
+                this.p++;
+                match = keyEquals((byte) c, k, key);
+                break;
+            default:
+                match = nextValue().toString().equals(key);
+            }
+            if (nextClean() != ':') throw syntaxError("Expected a ':' after a key");
+            if (match) return true;
+            skipValue();
+            switch (nextClean()) {
+            case ';':
+            case ',':
+                break;
+            case '}':
+                return false;
+            default:
+                throw syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * consume a quoted key and compare it with a given key
+     * @param quote the quote character, the opening quote has already been consumed
+     * @param k the UTF-8 encoding of the key
+     * @param key the key
+     * @return true if the keys are equal
+     */
+    private boolean keyEquals(final byte quote, final byte[] k, final String key) throws JSONException {
+        final int s = this.p;
+        while (this.p < this.end) {
+            final byte c = this.b[this.p];
+            if (c == quote) {
+                this.p++;
+                if (this.p - 1 - s != k.length) return false;
+                for (int i = 0; i < k.length; i++) if (this.b[s + i] != k[i]) return false;
+                return true;
+            }
+            if (c == '\\') {
+                this.p = s;
+                return nextString(quote).equals(key);
+            }
+            if (c == '\n' || c == '\r' || c == 0) break;
+            this.p++;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * enter the array at the current position and move to the element with the given index.
+     * All elements before the index are skipped without creating them.
+     * @param index the index of the element
+     * @return true if the element exists; the next value is then the element.
+     *   false if the array is shorter or the element is empty; the array is then consumed up to that point.
+     * @throws JSONException if the next value is not an array
+     */
+    public boolean seekIndex(final int index) throws JSONException {
+        if (nextClean() != '[') throw syntaxError("A JSONArray text must start with '['");
+        for (int i = 0;; i++) {
+            final int c = peekClean();
+            if (c == 0) throw syntaxError("Expected a ',' or ']'");
+            if (c == ']') {
+                this.p++;
+                return false;
+            }
+            if (i == index) return c != ',';
+            if (c != ',') skipValue();
+            switch (nextClean()) {
+            case ',':
+                break;
+            case ']':
+                return false;
+            default:
+                throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * read a key and intern it; the opening quote has already been consumed.
+     * Keys in ASCII without escapes are looked up in the key table without decoding them first.
+     */
+    private String nextKey(final byte quote) throws JSONException {
+        final int s = this.p;
+        while (this.p < this.end) {
+            final byte c = this.b[this.p];
+            if (c == quote) {
+                this.p++;
+                return this.keys.intern(this.b, s, this.p - 1 - s);
+            }
+            if (c == '\\' || c < 0) {
+                this.p = s;
+                return this.keys.intern(nextString(quote));
+            }
+            if (c == '\n' || c == '\r' || c == 0) break;
+            this.p++;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * read a string up to the closing quote; the opening quote has already been consumed
+     * @param quote the quote character
+     * @return the decoded string
+     */
+    private String nextString(final byte quote) throws JSONException {
+        final int s = this.p;
+        boolean ascii = true;
+        while (this.p < this.end) {
+            final byte c = this.b[this.p];
+            if (c == quote) {
+                this.p++;
+                return new String(this.b, s, this.p - 1 - s, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            }
+            if (c == '\\') return nextEscapedString(quote, s);
+            if (c == '\n' || c == '\r' || c == 0) break;
+            if (c < 0) ascii = false;
+            this.p++;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * read a string which contains escape sequences; the unescaped parts are decoded as a whole
+     * @param quote the quote character
+     * @param s the start of the string content
+     * @return the decoded string
+     */
+    private String nextEscapedString(final byte quote, int s) throws JSONException {
+        final StringBuilder sb = new StringBuilder(this.p - s + 16);
+        while (this.p < this.end) {
+            final byte c = this.b[this.p];
+            if (c == quote) {
+                sb.append(new String(this.b, s, this.p - s, StandardCharsets.UTF_8));
+                this.p++;
+                return sb.toString();
+            }
+            if (c == '\n' || c == '\r' || c == 0) break;
+            if (c != '\\') {
+                this.p++;
+                continue;
+            }
+            if (this.p > s) sb.append(new String(this.b, s, this.p - s, StandardCharsets.UTF_8));
+            if (++this.p >= this.end) break;
+            final byte e = this.b[this.p++];
+            switch (e) {
+            case 'b': sb.append('\b'); break;
+            case 't': sb.append('\t'); break;
+            case 'n': sb.append('\n'); break;
+            case 'f': sb.append('\f'); break;
+            case 'r': sb.append('\r'); break;
+            case 'u':
+                if (this.p + 4 > this.end) throw syntaxError("Substring bounds error");
+                int u = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int d = Character.digit(this.b[this.p++], 16);
+                    if (d < 0) throw syntaxError("Illegal escape.");
+                    u = (u << 4) | d;
+                }
+                sb.append((char) u);
+                break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                sb.append((char) e);
+                break;
+            default:
+                throw syntaxError("Illegal escape.");
+            }
+            s = this.p;
+        }
+        throw syntaxError("Unterminated string");
+    }
+}
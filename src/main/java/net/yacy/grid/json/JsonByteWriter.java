@@ -0,0 +1,400 @@
+/**
+ *  JsonByteWriter
+ *  a json serializer which writes UTF-8 bytes
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import net.yacy.grid.tools.ByteBuffer;
+
+/**
+ * A JsonByteWriter serializes JSONObject and JSONArray directly to UTF-8 bytes in a ByteBuffer, without a Writer
+ * and without intermediate Strings. The output is the same as from JSONObject.toString(indentFactor) and
+ * JSONArray.toString(indentFactor). Strings are escaped with a lookup table for the ASCII characters; runs of
+ * characters which need no escape are copied in one step.
+ * Each thread has a reusable buffer which can be used for serialization; use buffer() to get it.
+ * Large documents can be written to a stream in chunks of CHUNK_SIZE bytes, see writeValue(OutputStream, ...).
+ */
+public final class JsonByteWriter {
+
+    // the same pattern as in JSONObject, to check numbers of unknown type
+    private final static Pattern NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+
+    // escape characters for ASCII: 0 for characters which are copied, otherwise the character after the backslash
+    private final static byte[] ESCAPE = new byte[128];
+    static {
+        for (int i = 0; i < ' '; i++) ESCAPE[i] = 'u';
+        ESCAPE['"'] = '"';
+        ESCAPE['\\'] = '\\';
+        ESCAPE['/'] = '/'; // only escaped after '<'
+        ESCAPE['\b'] = 'b';
+        ESCAPE['\t'] = 't';
+        ESCAPE['\n'] = 'n';
+        ESCAPE['\f'] = 'f';
+        ESCAPE['\r'] = 'r';
+    }
+    private final static byte[] HEX = "0123456789abcdef".getBytes();
+    private final static byte[] NULL = "null".getBytes(), TRUE = "true".getBytes(), FALSE = "false".getBytes();
+
+    public final static int CHUNK_SIZE = 64 * 1024; // the size of the chunks which are written to a stream
+    private final static int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private final static ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> new ByteBuffer(4096));
+
+    /**
+     * get the empty serialization buffer of the current thread. The content of the buffer is only valid
+     * until the next call of buffer() in the same thread; copy or write it before.
+     * @return an empty buffer
+     */
+    public static ByteBuffer buffer() {
+        ByteBuffer bb = BUFFER.get();
+        if (bb.capacity() > MAX_RETAINED_CAPACITY) {
+            // do not keep the memory of a single large serialization
+            bb = new ByteBuffer(4096);
+            BUFFER.set(bb);
+        }
+        bb.clear();
+        return bb;
+    }
+
+    /**
+     * serialize a json object to a new byte array
+     * @param json the object
+     * @param indentFactor the number of spaces for each level of indentation, 0 for the minified form
+     * @return the UTF-8 encoded json text
+     */
+    public static byte[] toBytes(final JSONObject json, final int indentFactor) throws JSONException {
+        final ByteBuffer bb = buffer();
+        writeObject(bb, json, indentFactor, 0);
+        final byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        return b;
+    }
+
+    public static byte[] toBytes(final JSONArray json, final int indentFactor) throws JSONException {
+        final ByteBuffer bb = buffer();
+        writeArray(bb, json, indentFactor, 0);
+        final byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        return b;
+    }
+
+    public static void writeObject(final ByteBuffer bb, final JSONObject json, final int indentFactor, final int indent) throws JSONException {
+        new Output(bb, null).object(json, indentFactor, indent);
+    }
+
+    /**
+     * write the members of an object in the minified form without the enclosing braces
+     * @param bb the target
+     * @param json the object
+     * @return the number of written members
+     */
+    public static int writeMembers(final ByteBuffer bb, final JSONObject json) throws JSONException {
+        return new Output(bb, null).members(json);
+    }
+
+    public static void writeArray(final ByteBuffer bb, final JSONArray json, final int indentFactor, final int indent) throws JSONException {
+        new Output(bb, null).array(json, indentFactor, indent);
+    }
+
+    public static void writeValue(final ByteBuffer bb, final Object value, final int indentFactor, final int indent) throws JSONException {
+        new Output(bb, null).value(value, indentFactor, indent);
+    }
+
+    /**
+     * serialize a value to a stream in chunks: whenever the buffer holds CHUNK_SIZE bytes or more at the end of
+     * a member or an array element, the buffer is written to the stream and cleared. The bytes of the end of the
+     * value remain in the buffer, so that the caller can append more and write the buffer at the end.
+     * The buffer must belong to the caller and must not be the buffer() of the thread, which may be used by
+     * JSONString values.
+     * @param os the target stream
+     * @param bb the buffer which holds the bytes before they are written
+     * @param value the value
+     * @param indentFactor the number of spaces for each level of indentation, 0 for the minified form
+     * @return the number of bytes which were written to the stream
+     * @throws IOException
+     */
+    public static long writeValue(final OutputStream os, final ByteBuffer bb, final Object value, final int indentFactor) throws IOException {
+        final Output output = new Output(bb, os);
+        try {
+            output.value(value, indentFactor, 0);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return output.written;
+    }
+
+    /**
+     * The recursive serialization into a buffer which is optionally written to a stream in chunks
+     */
+    private final static class Output {
+
+        private final ByteBuffer bb;
+        private final OutputStream os;
+        private long written;
+
+        private Output(final ByteBuffer bb, final OutputStream os) {
+            this.bb = bb;
+            this.os = os;
+            this.written = 0;
+        }
+
+        private void spill() {
+            if (this.os == null || this.bb.length() < CHUNK_SIZE) return;
+            try {
+                this.bb.writeTo(this.os);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.written += this.bb.length();
+            this.bb.clear();
+        }
+
+        private void object(final JSONObject json, final int indentFactor, final int indent) throws JSONException {
+            final ByteBuffer bb = this.bb;
+            final int length = json.length();
+            bb.append('{');
+            if (length == 1) {
+                final String key = json.keys().next();
+                quote(bb, key);
+                bb.append(':');
+                if (indentFactor > 0) bb.append(' ');
+                value(json.opt(key), indentFactor, indent);
+            } else if (length != 0) {
+                final int newindent = indent + indentFactor;
+                boolean commanate = false;
+                for (final String key: json.keySet()) {
+                    if (commanate) bb.append(',');
+                    if (indentFactor > 0) bb.append('\n');
+                    indent(bb, newindent);
+                    quote(bb, key);
+                    bb.append(':');
+                    if (indentFactor > 0) bb.append(' ');
+                    value(json.opt(key), indentFactor, newindent);
+                    commanate = true;
+                    spill();
+                }
+                if (indentFactor > 0) bb.append('\n');
+                indent(bb, indent);
+            }
+            bb.append('}');
+        }
+
+        private int members(final JSONObject json) throws JSONException {
+            int c = 0;
+            for (final String key: json.keySet()) {
+                if (c++ > 0) this.bb.append(',');
+                quote(this.bb, key);
+                this.bb.append(':');
+                value(json.opt(key), 0, 0);
+                spill();
+            }
+            return c;
+        }
+
+        private void array(final JSONArray json, final int indentFactor, final int indent) throws JSONException {
+            final ByteBuffer bb = this.bb;
+            final int length = json.length();
+            bb.append('[');
+            if (length == 1) {
+                value(json.opt(0), indentFactor, indent);
+            } else if (length != 0) {
+                final int newindent = indent + indentFactor;
+                for (int i = 0; i < length; i++) {
+                    if (i > 0) bb.append(',');
+                    if (indentFactor > 0) bb.append('\n');
+                    indent(bb, newindent);
+                    value(json.opt(i), indentFactor, newindent);
+                    spill();
+                }
+                if (indentFactor > 0) bb.append('\n');
+                indent(bb, indent);
+            }
+            bb.append(']');
+        }
+
+        private void value(final Object value, final int indentFactor, final int indent) throws JSONException {
+            final ByteBuffer bb = this.bb;
+            if (value == null || value.equals(null)) {
+                bb.append(NULL);
+            } else if (value instanceof String) {
+                quote(bb, (String) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                bb.appendDecimal(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                final String s = JSONObject.numberToString((Number) value);
+                bb.appendASCII(s, 0, s.length());
+            } else if (value instanceof JSONObject) {
+                object((JSONObject) value, indentFactor, indent);
+            } else if (value instanceof JSONArray) {
+                array((JSONArray) value, indentFactor, indent);
+            } else if (value instanceof Boolean) {
+                bb.append(((Boolean) value).booleanValue() ? TRUE : FALSE);
+            } else if (value instanceof JSONString) {
+                Object o;
+                try {
+                    o = ((JSONString) value).toJSONString();
+                } catch (Exception e) {
+                    throw new JSONException(e);
+                }
+                if (o != null) utf8(bb, o.toString()); else quote(bb, value.toString());
+            } else if (value instanceof Number) {
+                // not all Numbers may match actual JSON Numbers. i.e. fractions or Imaginary
+                final String s = JSONObject.numberToString((Number) value);
+                if (NUMBER_PATTERN.matcher(s).matches()) bb.appendASCII(s, 0, s.length()); else quote(bb, s);
+            } else if (value instanceof Enum<?>) {
+                quote(bb, ((Enum<?>) value).name());
+            } else if (value instanceof Map) {
+                object(new JSONObject((Map<?, ?>) value), indentFactor, indent);
+            } else if (value instanceof Collection) {
+                array(new JSONArray((Collection<?>) value), indentFactor, indent);
+            } else if (value.getClass().isArray()) {
+                array(new JSONArray(value), indentFactor, indent);
+            } else {
+                quote(bb, value.toString());
+            }
+        }
+    }
+
+    private static void indent(final ByteBuffer bb, final int indent) {
+        for (int i = 0; i < indent; i++) bb.append(' ');
+    }
+
+    /**
+     * write a quoted and escaped string, as JSONObject.quote does
+     * @param bb the target
+     * @param s the string, null is written as empty string
+     */
+    public static void quote(final ByteBuffer bb, final String s) {
+        bb.append('"');
+        if (s == null) {
+            bb.append('"');
+            return;
+        }
+        final int len = s.length();
+        char prev = 0;
+        int i = 0;
+        while (i < len) {
+            // copy a run of characters which do not need an escape
+            int j = i;
+            char c;
+            while (j < len && (c = s.charAt(j)) < 128 && ESCAPE[c] == 0) j++;
+            if (j > i) {
+                bb.appendASCII(s, i, j);
+                prev = s.charAt(j - 1);
+                i = j;
+                if (i == len) break;
+            }
+            c = s.charAt(i);
+            if (c < 128) {
+                final byte e = ESCAPE[c];
+                if (e == '/') {
+                    if (prev == '<') bb.append('\\');
+                    bb.append('/');
+                } else if (e == 'u') {
+                    unicode(bb, c);
+                } else {
+                    bb.append('\\');
+                    bb.append(e);
+                }
+            } else if (c < 0xa0 || (c >= 0x2000 && c < 0x2100)) {
+                unicode(bb, c);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    utf8(bb, Character.toCodePoint(c, s.charAt(++i)));
+                } else {
+                    bb.append('?'); // as the UTF-8 encoder of a Writer does with a lone surrogate
+                }
+            } else {
+                utf8(bb, c);
+            }
+            prev = s.charAt(i);
+            i++;
+        }
+        bb.append('"');
+    }
+
+    private static void unicode(final ByteBuffer bb, final char c) {
+        bb.append('\\');
+        bb.append('u');
+        bb.append(HEX[(c >> 12) & 0xf]);
+        bb.append(HEX[(c >> 8) & 0xf]);
+        bb.append(HEX[(c >> 4) & 0xf]);
+        bb.append(HEX[c & 0xf]);
+    }
+
+    private static void utf8(final ByteBuffer bb, final int cp) {
+        if (cp < 0x80) {
+            bb.append((byte) cp);
+        } else if (cp < 0x800) {
+            bb.append((byte) (0xc0 | (cp >> 6)));
+            bb.append((byte) (0x80 | (cp & 0x3f)));
+        } else if (cp < 0x10000) {
+            bb.append((byte) (0xe0 | (cp >> 12)));
+            bb.append((byte) (0x80 | ((cp >> 6) & 0x3f)));
+            bb.append((byte) (0x80 | (cp & 0x3f)));
+        } else {
+            bb.append((byte) (0xf0 | (cp >> 18)));
+            bb.append((byte) (0x80 | ((cp >> 12) & 0x3f)));
+            bb.append((byte) (0x80 | ((cp >> 6) & 0x3f)));
+            bb.append((byte) (0x80 | (cp & 0x3f)));
+        }
+    }
+
+    /**
+     * write a string as UTF-8 without quotes and escapes
+     * @param bb the target
+     * @param s the string
+     */
+    public static void utf8(final ByteBuffer bb, final String s) {
+        final int len = s.length();
+        int i = 0;
+        while (i < len) {
+            int j = i;
+            while (j < len && s.charAt(j) < 128) j++;
+            if (j > i) {
+                bb.appendASCII(s, i, j);
+                i = j;
+                if (i == len) break;
+            }
+            final char c = s.charAt(i);
+            if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    utf8(bb, Character.toCodePoint(c, s.charAt(++i)));
+                } else {
+                    bb.append('?');
+                }
+            } else {
+                utf8(bb, c);
+            }
+            i++;
+        }
+    }
+}
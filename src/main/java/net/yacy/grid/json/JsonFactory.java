@@ -20,11 +20,22 @@
 package net.yacy.grid.json;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.json.JSONObject;
 
 public interface JsonFactory {
 
     public JSONObject getJSON() throws IOException;
+
+    /**
+     * get the json as UTF-8 encoded bytes. If the json was read from a file, this returns the bytes
+     * as they are stored without parsing them; use this to forward or export records.
+     * @return the json text as bytes
+     * @throws IOException
+     */
+    public default byte[] getRaw() throws IOException {
+        return getJSON().toString().getBytes(StandardCharsets.UTF_8);
+    }
     
 }
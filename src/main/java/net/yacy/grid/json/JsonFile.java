@@ -38,6 +38,10 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
+import org.json.KeyTable;
+import org.json.NumberScanner;
+
+import net.yacy.grid.tools.ByteBuffer;
 
 /**
  * This extends JSONObject to be a file which gets loaded and written to disk
@@ -241,28 +245,22 @@ public class JsonFile {
                 String value = line.substring(p + 2).trim();
                 if (value.endsWith(",")) value = value.substring(0, value.length() - 1);
                 if (value.charAt(0) == '{') {
-                    json.put(key, new JSONObject(new JSONTokener(value)));
+                    json.put(key, new JSONObject(new JSONTokener(value).setKeyTable(KeyTable.SHARED)));
                 } else if (value.charAt(0) == '[') {
-                    json.put(key, new JSONArray(new JSONTokener(value)));
+                    json.put(key, new JSONArray(new JSONTokener(value).setKeyTable(KeyTable.SHARED)));
                 } else if (value.charAt(0) == '"') {
                     json.put(key, value.substring(1, value.length() - 1));
-                } else if (value.indexOf('.') > 0) {
-                    try {
-                        json.put(key, Double.parseDouble(value));
-                    } catch (NumberFormatException e) {
-                        json.put(key, value);
-                    }
                 } else {
-                    try {
-                        json.put(key, Long.parseLong(value));
-                    } catch (NumberFormatException e) {
-                        json.put(key, value);
-                    }
+                    // keep the types of this format: integers are Long, and only numbers with a '.' are Double
+                    Number n = NumberScanner.scan(value);
+                    if (n instanceof Integer || n instanceof Long) json.put(key, n.longValue());
+                    else if (n != null && value.indexOf('.') > 0) json.put(key, n);
+                    else json.put(key, value);
                 }
             }
         } else {
             try {
-                json.putAll(new JSONObject(new JSONTokener(is)));
+                json.putAll(new JsonByteParser(b, 0, b.length).setKeyTable(KeyTable.SHARED).nextObject());
             } catch (JSONException e) {
                 // could be a double key problem. In that case we should repeat the process with another approach
                 throw new IOException(e);
@@ -273,14 +271,10 @@ public class JsonFile {
 
     private static void writeProperty(RandomAccessFile writer, String key, Object object) throws IOException {
         writer.write('"'); writer.write(key.getBytes(StandardCharsets.UTF_8)); writer.write('"'); writer.write(':');
-        if (object instanceof JSONObject) {
-            writer.write(((JSONObject) object).toString().getBytes(StandardCharsets.UTF_8));
-        } else if (object instanceof Map) {
-            writer.write(new JSONObject((Map<?,?>) object).toString().getBytes(StandardCharsets.UTF_8));
-        } else if (object instanceof JSONArray) {
-            writer.write(((JSONArray) object).toString().getBytes(StandardCharsets.UTF_8));
-        } else if (object instanceof Collection) {
-            writer.write(new JSONArray((Collection<?>) object).toString().getBytes(StandardCharsets.UTF_8));
+        if (object instanceof JSONObject || object instanceof Map || object instanceof JSONArray || object instanceof Collection) {
+            ByteBuffer bb = JsonByteWriter.buffer();
+            JsonByteWriter.writeValue(bb, object, 0, 0);
+            bb.writeTo(writer);
         } else if (object instanceof String) {
             writer.write('"'); writer.write(((String) object).getBytes(StandardCharsets.UTF_8)); writer.write('"');
         } else {
@@ -318,7 +312,7 @@ public class JsonFile {
             }
             writer.write('}');
         } else {
-            writer.write(json.toString(2).getBytes(StandardCharsets.UTF_8));
+            writer.write(JsonByteWriter.toBytes(json, 2));
         }
         writer.close();
 
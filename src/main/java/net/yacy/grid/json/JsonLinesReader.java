@@ -0,0 +1,365 @@
+/**
+ *  JsonLinesReader
+ *  a parallel reader for files with one json object in each line
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.KeyTable;
+
+import net.yacy.grid.http.Log;
+
+/**
+ * A JsonLinesReader reads json lines (one object in each line, as in JsonList files and JsonRepository dumps)
+ * and parses the lines on a fork/join pool. The input is read on a reader thread in chunks which end at a line
+ * break; each chunk is parsed as a task which is split into smaller tasks at line breaks, so that all threads of
+ * the pool work on large chunks.
+ * The records are delivered to a consumer on the thread which calls read(), so the consumer does not need to be
+ * thread-safe. They are delivered either in the order of the input or in the order in which the chunks are
+ * parsed. Only a bounded number of chunks is read ahead: if the consumer is slower than the parser, the reader
+ * waits, so the memory which is needed does not depend on the size of the input.
+ * Lines may be text json or binary records as written by JsonRepository in binary mode; empty lines are skipped.
+ * Input which fits into a single chunk is parsed on the calling thread without any thread hand-over.
+ */
+public class JsonLinesReader {
+
+    public final static int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private final static int SPLIT_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+    private final int chunkSize;
+    private final int maxPending;
+
+    /**
+     * create a reader with an own thread pool
+     * @param threads the number of parser threads
+     * @param chunkSize the number of bytes which are read in one step; lines which are longer get a larger chunk
+     * @param maxPending the number of chunks which may be read ahead of the consumer
+     */
+    public JsonLinesReader(final int threads, final int chunkSize, final int maxPending) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.ownPool = true;
+        this.chunkSize = chunkSize;
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    public JsonLinesReader(final int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE, 2 * threads + 2);
+    }
+
+    /**
+     * create a reader which parses on the common fork/join pool
+     */
+    public JsonLinesReader() {
+        this.pool = ForkJoinPool.commonPool();
+        this.ownPool = false;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.maxPending = 2 * this.pool.getParallelism() + 2;
+    }
+
+    /**
+     * shut down the own thread pool; the reader can not be used after that
+     */
+    public void close() {
+        if (this.ownPool) this.pool.shutdown();
+    }
+
+    /**
+     * read all lines of a stream. The stream is not closed.
+     * @param is the input
+     * @param ordered if true, the records are delivered in the order of the input
+     * @param consumer the receiver of the records, called on the current thread
+     * @return the number of records
+     * @throws IOException if the input can not be read or a line can not be parsed; the reading stops at the first error
+     */
+    public long read(final InputStream is, final boolean ordered, final Consumer<JSONObject> consumer) throws IOException {
+        // read the first chunk here; if this is the whole input, there is no need for other threads
+        Chunker chunker = new Chunker(is, this.chunkSize);
+        Chunk first = chunker.next();
+        if (first == null) return 0;
+        if (chunker.eof) {
+            List<JSONObject> records;
+            try {
+                records = parse(first.b, 0, first.length);
+            } catch (JSONException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            for (JSONObject json: records) consumer.accept(json);
+            return records.size();
+        }
+
+        final Semaphore pending = new Semaphore(this.maxPending);
+        final BlockingQueue<Object> delivery = new LinkedBlockingQueue<>();
+        final Thread reader = new Thread("JsonLinesReader") {
+            @Override
+            public void run() {
+                int count = 0;
+                try {
+                    Chunk c = first;
+                    while (c != null) {
+                        pending.acquire();
+                        ChunkTask task = new ChunkTask(c.b, 0, c.length);
+                        if (ordered) {
+                            delivery.put(JsonLinesReader.this.pool.submit(task));
+                        } else {
+                            JsonLinesReader.this.pool.execute(new CompletingTask(task, delivery));
+                        }
+                        count++;
+                        c = chunker.next();
+                    }
+                    delivery.put(new End(count, null));
+                } catch (InterruptedException e) {
+                    // the consumer has stopped reading
+                } catch (IOException e) {
+                    delivery.add(new End(count, e));
+                }
+            }
+        };
+        reader.setDaemon(true);
+        reader.start();
+
+        long records = 0;
+        int delivered = 0;
+        End end = null;
+        try {
+            for (;;) {
+                if (end != null && delivered == end.chunks) break;
+                Object o = delivery.take();
+                if (o instanceof End) {
+                    end = (End) o;
+                    if (end.e != null) throw end.e;
+                    continue;
+                }
+                List<JSONObject> chunk;
+                if (o instanceof ForkJoinTask) {
+                    try {
+                        @SuppressWarnings("unchecked")
+                        List<JSONObject> c = ((ForkJoinTask<List<JSONObject>>) o).join();
+                        chunk = c;
+                    } catch (RuntimeException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                } else if (o instanceof Throwable) {
+                    throw new IOException(((Throwable) o).getMessage(), (Throwable) o);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    List<JSONObject> c = (List<JSONObject>) o;
+                    chunk = c;
+                }
+                delivered++;
+                pending.release();
+                for (JSONObject json: chunk) consumer.accept(json);
+                records += chunk.size();
+            }
+        } catch (InterruptedException e) {
+            Log.logger.warn("JsonLinesReader interrupted", e);
+            throw new IOException(e);
+        } finally {
+            reader.interrupt();
+        }
+        return records;
+    }
+
+    /**
+     * parse all lines in a range of bytes
+     * @param b the bytes
+     * @param off the start of the first line
+     * @param len the length of the lines
+     * @return the records in the order of the lines
+     * @throws JSONException if a line can not be parsed
+     */
+    public static List<JSONObject> parse(final byte[] b, final int off, final int len) throws JSONException {
+        List<JSONObject> records = new ArrayList<>();
+        final int end = off + len;
+        int p = off;
+        while (p < end) {
+            int q = p;
+            while (q < end && b[q] != '\n') q++;
+            int e = q;
+            if (e > p && b[e - 1] == '\r') e--;
+            JSONObject json = parseLine(b, p, e - p);
+            if (json != null) records.add(json);
+            p = q + 1;
+        }
+        return records;
+    }
+
+    private static JSONObject parseLine(final byte[] b, int off, int len) throws JSONException {
+        // skip blank lines
+        int s = off, e = off + len;
+        while (s < e && b[s] <= ' ' && b[s] >= 0) s++;
+        if (s == e) return null;
+        if (JsonBinary.isBinary(b, s, e - s)) {
+            byte[] line = new byte[e - s];
+            System.arraycopy(b, s, line, 0, line.length);
+            return JsonBinary.decodeLine(line, KeyTable.SHARED);
+        }
+        return new JsonByteParser(b, s, e - s).setKeyTable(KeyTable.SHARED).nextObject();
+    }
+
+    /**
+     * A task which parses a range of lines; large ranges are split at a line break and parsed in parallel
+     */
+    private static class ChunkTask extends RecursiveTask<List<JSONObject>> {
+        private static final long serialVersionUID = 3412817364729364352L;
+        private final byte[] b;
+        private final int off, len;
+
+        private ChunkTask(final byte[] b, final int off, final int len) {
+            this.b = b;
+            this.off = off;
+            this.len = len;
+        }
+
+        @Override
+        protected List<JSONObject> compute() {
+            if (this.len > SPLIT_SIZE) {
+                // find a line break near the middle
+                int m = this.off + this.len / 2;
+                final int end = this.off + this.len;
+                while (m < end && this.b[m] != '\n') m++;
+                if (m < end - 1) {
+                    ChunkTask left = new ChunkTask(this.b, this.off, m + 1 - this.off);
+                    ChunkTask right = new ChunkTask(this.b, m + 1, end - m - 1);
+                    left.fork();
+                    List<JSONObject> r = right.compute();
+                    List<JSONObject> l = left.join();
+                    l.addAll(r);
+                    return l;
+                }
+            }
+            return parse(this.b, this.off, this.len);
+        }
+    }
+
+    /**
+     * A task which parses a chunk and hands the result over to the delivery queue as soon as it is done
+     */
+    private static class CompletingTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = -6025741658213432121L;
+        private final ChunkTask task;
+        private final BlockingQueue<Object> delivery;
+
+        private CompletingTask(final ChunkTask task, final BlockingQueue<Object> delivery) {
+            this.task = task;
+            this.delivery = delivery;
+        }
+
+        @Override
+        protected Void compute() {
+            try {
+                this.delivery.add(this.task.invoke());
+            } catch (Throwable e) {
+                this.delivery.add(e);
+            }
+            return null;
+        }
+    }
+
+    private static class End {
+        private final int chunks;
+        private final IOException e;
+        private End(final int chunks, final IOException e) {
+            this.chunks = chunks;
+            this.e = e;
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] b;
+        private final int length;
+        private Chunk(final byte[] b, final int length) {
+            this.b = b;
+            this.length = length;
+        }
+    }
+
+    /**
+     * splits a stream into chunks of whole lines
+     */
+    private static class Chunker {
+        private final InputStream is;
+        private final int chunkSize;
+        private byte[] rest; // the start of a line which did not fit into the last chunk
+        private int restLength;
+        private boolean eof;
+
+        private Chunker(final InputStream is, final int chunkSize) {
+            this.is = is;
+            this.chunkSize = chunkSize;
+            this.rest = null;
+            this.restLength = 0;
+            this.eof = false;
+        }
+
+        /**
+         * read the next chunk
+         * @return a chunk which ends at the end of a line or the end of the input, or null at the end of the input
+         */
+        private Chunk next() throws IOException {
+            if (this.eof) return null;
+            byte[] b = new byte[Math.max(this.chunkSize, this.restLength * 2)];
+            int n = 0;
+            if (this.restLength > 0) {
+                System.arraycopy(this.rest, 0, b, 0, this.restLength);
+                n = this.restLength;
+            }
+            for (;;) {
+                while (n < b.length) {
+                    int r = this.is.read(b, n, b.length - n);
+                    if (r < 0) {
+                        this.eof = true;
+                        this.rest = null;
+                        this.restLength = 0;
+                        return n == 0 ? null : new Chunk(b, n);
+                    }
+                    n += r;
+                }
+                // the chunk is full: cut it after the last line break
+                int l = n - 1;
+                while (l >= 0 && b[l] != '\n') l--;
+                if (l >= 0) {
+                    this.restLength = n - l - 1;
+                    this.rest = new byte[this.restLength];
+                    System.arraycopy(b, l + 1, this.rest, 0, this.restLength);
+                    return new Chunk(b, l + 1);
+                }
+                // a single line is longer than the chunk
+                byte[] g = new byte[b.length * 2];
+                System.arraycopy(b, 0, g, 0, n);
+                b = g;
+            }
+        }
+    }
+}
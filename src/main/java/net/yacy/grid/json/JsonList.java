@@ -19,18 +19,14 @@
 
 package net.yacy.grid.json;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 /**
  * A JSONList is an object which represents a list of json objects: that is
@@ -42,6 +38,8 @@ import org.json.JSONTokener;
  */
 public class JsonList implements Iterable<Object> {
 
+	private final static JsonLinesReader READER = new JsonLinesReader();
+
 	private JSONArray array;
 	
 	public JsonList() {
@@ -50,18 +48,8 @@ public class JsonList implements Iterable<Object> {
 	
 	public JsonList(InputStream sourceStream) throws IOException {
         this();
-        BufferedReader br = new BufferedReader(new InputStreamReader(sourceStream, StandardCharsets.UTF_8));
-        String line;
-        try {
-	        while ((line = br.readLine()) != null) {
-	        	line = line.trim();
-	        	if (line.length() == 0) continue;
-	            JSONObject json = new JSONObject(new JSONTokener(line));
-	            this.add(json);
-	        }
-        } catch (JSONException e) {
-        	throw new IOException(e);
-        }
+        // the lines are parsed in parallel if the input is large; small input is parsed on this thread
+        READER.read(sourceStream, true, json -> this.add(json));
 	}
 
 	public JsonList(JSONArray a) throws IOException {
@@ -20,20 +20,17 @@
 
 package net.yacy.grid.json;
 
-import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 public class JsonPath {
     
     public static JSONArray parse(byte[] b, String jsonPath) throws JSONException {
-        JSONTokener tokener = new JSONTokener(new ByteArrayInputStream(b));
         try {
-            JSONArray data = JsonPath.parse(tokener, jsonPath);
+            JSONArray data = JsonPath.parse(new JsonByteParser(b, 0, b.length), jsonPath);
             return data;
         } catch (JSONException e) {
             if (jsonPath.equals("$")) {
@@ -44,8 +41,8 @@ public class JsonPath {
         }
     }
     
-    private static JSONArray parse(JSONTokener tokener, String jsonPath) throws JSONException {
-        JSONArray a = parseRaw(tokener, jsonPath);
+    private static JSONArray parse(JsonByteParser parser, String jsonPath) throws JSONException {
+        JSONArray a = parseRaw(parser, jsonPath);
         if (a.length() == 0) return a; // length == 1 will cause an empty thought. Its not wrong, it will just cause that thinking fails. May be wanted.
         Object f = a.get(0);
         if (a.length() == 1 && (!(f instanceof JSONObject))) {
@@ -71,46 +68,46 @@ public class JsonPath {
      * Very simple JSONPath decoder which always creates a JSONArray as result.
      * If the jsonPath does not point to an array, but to an object, the object is
      * placed within an array artificially. Therefore all kind of objects can be addressed.
+     * The path is evaluated while the json is read: all values which are not on the path
+     * are skipped without creating them, only the selected value is parsed.
      * Examples for JSONPaths:
      * $ - the whole json is the array
-     * @param tokener contains the parsed JSON
+     * $[2] - the third element of the array
+     * $.query.results.row - the value at the key 'row' in the object at 'results' in the object at 'query'
+     * $.rows[0][1] - the second element in the first element of the array at the key 'rows'
+     * @param parser contains the JSON
      * @param jsonPath a path as defined by http://goessner.net/articles/JsonPath/
      * @return a JSONArray with the data part of a console query
      */
-    private static JSONArray parseRaw(JSONTokener tokener, String jsonPath) throws JSONException {
-        if (tokener == null) return null;
+    private static JSONArray parseRaw(JsonByteParser parser, String jsonPath) throws JSONException {
+        if (parser == null) return null;
         String[] dompath = jsonPath.split("\\.");
         if (dompath == null || dompath.length < 1) return null; // wrong syntax of jsonPath
         if (dompath.length == 1) {
-            if (dompath[0].equals("$")) return new JSONArray(tokener);
+            if (dompath[0].equals("$")) return parser.nextArray();
             if (dompath[0].length() > 1 && dompath[0].charAt(1) == '[' && dompath[0].charAt(dompath[0].length() - 1) == ']') {
                 int pos = Integer.parseInt(dompath[0].substring(2, dompath[0].length() - 1));
-                return new JSONArray(tokener).getJSONArray(pos);
+                seekIndex(parser, pos);
+                return parser.nextArray();
             }
             return null;
         }
-        Object decomposition = null;
         for (int domc = 1; domc < dompath.length; domc++) {
             String path = dompath[domc];
             int p = path.indexOf('[');
-            int q = p < 0 ? -1 : path.indexOf(']', p + 1);
             if (p < 0) {
-                decomposition = ((decomposition == null) ? new JSONObject(tokener) : ((JSONObject) decomposition)).get(path);
-            } else if (p == 0) {
-                int idx = Integer.parseInt(path.substring(1, q));
-                decomposition = ((decomposition == null) ? new JSONArray(tokener) : ((JSONArray) decomposition)).get(idx);
-            } else {
-                int idx = Integer.parseInt(path.substring(p + 1, q));
-                decomposition = ((decomposition == null) ? new JSONObject(tokener) : ((JSONObject) decomposition)).get(path.substring(0, p));
-                decomposition = ((JSONArray) decomposition).get(idx);
-                path = path.substring(q + 1);
-                if (path.length() > 0 && path.charAt(0) == '[' && (q = path.indexOf(']')) > 0) {
-                    // another dimension
-                    idx = Integer.parseInt(path.substring(1, q));
-                    decomposition = ((JSONArray) decomposition).get(idx);
-                }
+                seekKey(parser, path);
+                continue;
+            }
+            if (p > 0) seekKey(parser, path.substring(0, p));
+            // one or more dimensions
+            int q;
+            while (p >= 0 && (q = path.indexOf(']', p + 1)) > 0) {
+                seekIndex(parser, Integer.parseInt(path.substring(p + 1, q)));
+                p = path.indexOf('[', q + 1);
             }
         }
+        Object decomposition = parser.nextValue();
         if (decomposition instanceof JSONArray) return (JSONArray) decomposition;
         if (decomposition instanceof JSONObject) {
             // enrich the decomposition with header/column entries
@@ -132,9 +129,16 @@ public class JsonPath {
         throw new JSONException("unrecognized object type: " + decomposition.getClass().getName());
     }
 
+    private static void seekKey(JsonByteParser parser, String key) throws JSONException {
+        if (!parser.seekKey(key)) throw new JSONException("JSONObject[" + JSONObject.quote(key) + "] not found.");
+    }
+
+    private static void seekIndex(JsonByteParser parser, int index) throws JSONException {
+        if (!parser.seekIndex(index)) throw new JSONException("JSONArray[" + index + "] not found.");
+    }
+
     private static void test(String json, String path) {
-        JSONTokener tokener = new JSONTokener(json.trim());
-        JSONArray array = parse(tokener, path);
+        JSONArray array = parse(json.trim().getBytes(StandardCharsets.UTF_8), path);
         System.out.println("json:" + json.toString());
         System.out.println("path:" + path);
         System.out.println("pars:" + (array == null ? "NULL" : array.toString()));
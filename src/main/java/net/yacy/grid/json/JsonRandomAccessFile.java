@@ -23,19 +23,24 @@ package net.yacy.grid.json;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ArrayBlockingQueue;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.KeyTable;
 
 import net.yacy.grid.http.Log;
 import net.yacy.grid.tools.BufferedRandomAccessFile;
+import net.yacy.grid.tools.LineIndex;
 
 public class JsonRandomAccessFile extends BufferedRandomAccessFile {
 
     private File file;
     private int concurrency;
     private ArrayBlockingQueue<JsonFactory> jsonline;
+    private LineIndex index;
     
     /**
      * if a JsonRandomAccessFile object in initiated, it must be wrapped with a Thread object and started.
@@ -44,10 +49,55 @@ public class JsonRandomAccessFile extends BufferedRandomAccessFile {
      * @throws IOException
      */
     public JsonRandomAccessFile(final File dumpFile, final int concurrency) throws IOException {
+        this(dumpFile, concurrency, false);
+    }
+    
+    /**
+     * open a dump file with an optional line index. The index is a sidecar file next to the dump which
+     * holds the position of every record, so records can be accessed by their sequence number after a restart
+     * without a scan of the dump. It is validated and completed when the file is opened, see LineIndex.
+     * @param dumpFile
+     * @param concurrency
+     * @param indexed if true, the line index is opened or created
+     * @throws IOException
+     */
+    public JsonRandomAccessFile(final File dumpFile, final int concurrency, final boolean indexed) throws IOException {
         super(dumpFile, "rw", 1 << 14);
         this.file = dumpFile;
         this.concurrency = concurrency;
         this.jsonline = new ArrayBlockingQueue<>(1000);
+        if (indexed) {
+            // a line which was not completely written (i.e. before a crash) is removed, so that the next record starts in a new line
+            long length = this.length();
+            long end = completeLength(length);
+            if (end < length) {
+                Log.logger.warn("removing " + (length - end) + " bytes of an incomplete last line in " + dumpFile);
+                this.setLength(end);
+            }
+            this.index = new LineIndex(LineIndex.indexFile(dumpFile), dumpFile);
+        } else {
+            this.index = null;
+        }
+    }
+    
+    /**
+     * find the end of the last complete line
+     * @param length the length of the file
+     * @return the position after the last line break, 0 if there is none
+     */
+    private long completeLength(final long length) throws IOException {
+        byte[] b = new byte[4096];
+        long end = length;
+        while (end > 0) {
+            int n = (int) Math.min(b.length, end);
+            if (n < b.length) b = new byte[n];
+            this.read(b, end - n);
+            for (int i = n - 1; i >= 0; i--) {
+                if (b[i] == '\n') return end - n + i + 1;
+            }
+            end -= n;
+        }
+        return 0;
     }
     
     public String getName() {
@@ -78,6 +128,9 @@ public class JsonRandomAccessFile extends BufferedRandomAccessFile {
         public JSONObject getJSON() {
             return json;
         }
+        public byte[] getRaw() {
+            return this.json.toString().getBytes(StandardCharsets.UTF_8);
+        }
         public long getIndex() {
             return index;
         }
@@ -89,25 +142,134 @@ public class JsonRandomAccessFile extends BufferedRandomAccessFile {
         }
     }
     
+    /**
+     * add a line at the end of the file and to the line index
+     * @param b
+     * @return the seek position where the line started
+     * @throws IOException
+     */
+    @Override
+    public synchronized long appendLine(final byte[] b) throws IOException {
+        long seekpos = super.appendLine(b);
+        if (this.index != null && b.length > 0) this.index.add(seekpos, b.length);
+        return seekpos;
+    }
+    
     public JsonFactory getJsonFactory(long index, int length) {
         return new ReaderJsonFactory(index, length);
     }
     
+    public boolean isIndexed() {
+        return this.index != null;
+    }
+    
+    /**
+     * get the number of records in the line index
+     * @return the number of records or -1 if the file has no index
+     */
+    public long size() {
+        return this.index == null ? -1 : this.index.size();
+    }
+    
+    /**
+     * get a record by its sequence number, the position of the record in the file
+     * @param sequence the sequence number, starting with 0
+     * @return a lazy record
+     * @throws IOException if the file has no index
+     */
+    public JsonFactory getJsonFactory(long sequence) throws IOException {
+        if (this.index == null) throw new IOException("no line index for " + this.file);
+        return new ReaderJsonFactory(this.index.offset(sequence), this.index.length(sequence));
+    }
+    
+    /**
+     * A ReaderJsonFactory is a lazy record: it holds only the position and length of a json line in the file.
+     * The line is read and parsed at the first access to the json or one of its values. The parsed object
+     * is cached with a soft reference, so that it can be dropped again when the memory gets short.
+     * getJSON() returns a copy of the cached instance which the caller may modify; opt(key) reads single values
+     * from the cached instance without a copy. If the record is only forwarded, use getRaw() or toString()
+     * which do not parse the line at all.
+     */
     public class ReaderJsonFactory implements JsonFactory {
 
         private long index;
         private int length;
+        private volatile SoftReference<JSONObject> json;
         
         public ReaderJsonFactory(long index, int length) {
             this.index = index;
             this.length = length;
+            this.json = null;
         }
         
+        /**
+         * get the json of the record
+         * @return a copy of the parsed record which is not shared with other callers
+         * @throws IOException
+         */
         @Override
         public JSONObject getJSON() throws IOException {
+            return (JSONObject) copy(cached());
+        }
+
+        private JSONObject cached() throws IOException {
+            SoftReference<JSONObject> ref = this.json;
+            JSONObject json = ref == null ? null : ref.get();
+            if (json != null) return json;
+            byte[] b = read();
+            json = JsonBinary.isBinary(b) ?
+                    JsonBinary.decodeLine(b, KeyTable.SHARED) :
+                    new JsonByteParser(b, 0, b.length).setKeyTable(KeyTable.SHARED).nextObject();
+            this.json = new SoftReference<>(json);
+            return json;
+        }
+
+        private Object copy(Object value) {
+            if (value instanceof JSONObject) {
+                JSONObject json = (JSONObject) value;
+                JSONObject c = new JSONObject(true);
+                for (String key: json.keySet()) c.put(key, copy(json.get(key)));
+                return c;
+            }
+            if (value instanceof JSONArray) {
+                JSONArray array = (JSONArray) value;
+                JSONArray c = new JSONArray();
+                for (int i = 0; i < array.length(); i++) c.put(copy(array.get(i)));
+                return c;
+            }
+            return value;
+        }
+        
+        /**
+         * get the json text of the record; a text line is returned as it is, a binary record is decoded
+         */
+        @Override
+        public byte[] getRaw() throws IOException {
+            byte[] b = read();
+            if (JsonBinary.isBinary(b)) return JsonByteWriter.toBytes(cached(), 0);
+            return b;
+        }
+
+        private byte[] read() throws IOException {
             byte[] b = new byte[this.length];
             JsonRandomAccessFile.this.read(b, this.index);
-            return new JSONObject(new String(b, 0, b.length, StandardCharsets.UTF_8));
+            return b;
+        }
+        
+        /**
+         * get a value of the record; this parses the record if it is not already cached.
+         * The value is not copied: a JSONObject or JSONArray value must not be modified.
+         * @param key
+         * @return the value or null if the record has no such key
+         * @throws IOException
+         */
+        public Object opt(String key) throws IOException {
+            return cached().opt(key);
+        }
+        
+        public boolean isParsed() {
+            SoftReference<JSONObject> ref = this.json;
+            return ref != null && ref.get() != null;
         }
         public long getIndex() {
             return this.index;
@@ -120,7 +282,11 @@ public class JsonRandomAccessFile extends BufferedRandomAccessFile {
         }
         public String toString() {
             try {
-                return this.getJSON().toString();
+                SoftReference<JSONObject> ref = this.json;
+                JSONObject json = ref == null ? null : ref.get();
+                if (json != null) return json.toString();
+                // the line had been written with JSONObject.toString(); return it as it is
+                return new String(getRaw(), StandardCharsets.UTF_8);
             } catch (IOException e) {
             	Log.logger.error("", e);
                 return "";
@@ -130,6 +296,7 @@ public class JsonRandomAccessFile extends BufferedRandomAccessFile {
     
     public void close() throws IOException {
         super.close();
+        if (this.index != null) this.index.close();
     }
 
 }
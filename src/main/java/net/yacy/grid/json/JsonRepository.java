@@ -19,10 +19,13 @@
 
 package net.yacy.grid.json;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -34,11 +37,15 @@ import java.util.SortedSet;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import net.yacy.grid.http.Log;
+import net.yacy.grid.tools.ByteBuffer;
 import net.yacy.grid.tools.Compression;
+import net.yacy.grid.tools.LineIndex;
 
 
 public class JsonRepository {
@@ -76,6 +83,7 @@ public class JsonRepository {
     final Mode mode;
     final int concurrency;
     final Map<String, JsonRandomAccessFile> buffers;
+    private boolean binary;
     
     public JsonRepository(File dump_dir, String dump_file_prefix, String readme, final Mode mode, final boolean dailyDump, final int concurrency) throws IOException {
         this.dump_dir = dump_dir;
@@ -99,8 +107,24 @@ public class JsonRepository {
                 w.close();
             }
         }
-        this.json_log = new JsonRandomAccessFile(getCurrentDump(dump_dir_own, this.dump_file_prefix, mode, dailyDump), this.concurrency);
+        this.json_log = new JsonRandomAccessFile(getCurrentDump(dump_dir_own, this.dump_file_prefix, mode, dailyDump), this.concurrency, true);
         this.buffers = new TreeMap<>();
+        this.binary = false;
+    }
+    
+    /**
+     * switch the binary record mode: if set, new records are written in the binary json encoding
+     * instead of text lines. Readers of the dump recognize both kinds of records, so a dump may contain both.
+     * @param binary
+     * @return this
+     */
+    public JsonRepository setBinaryRecords(boolean binary) {
+        this.binary = binary;
+        return this;
+    }
+    
+    public boolean isBinaryRecords() {
+        return this.binary;
     }
     
     public File getDumpDir() {
@@ -127,6 +151,9 @@ public class JsonRepository {
                     continue;
                 }
                 
+                // the line index is only used for the current dump
+                if (d.startsWith(prefix) && d.endsWith(".txt")) LineIndex.indexFile(new File(path, d)).delete();
+                
                 // according to the write mode, we either compress or uncompress the file on-the-fly
                 if (mode == COMPRESSED_MODE) {
                     // all files should be compressed to enable small file sizes, but contents must be in RAM after reading
@@ -152,6 +179,7 @@ public class JsonRepository {
                         final File source = new File(path, d);
                         final File dest = new File(path, d.substring(0,  d.length() - 3));
                         if (dest.exists()) dest.delete();
+                        LineIndex.indexFile(dest).delete();
                         try {
                             Compression.gunzip(source, dest, true);
                         } catch (IOException e) {
@@ -179,24 +207,52 @@ public class JsonRepository {
     }
     
     public JsonFactory write(JSONObject json) throws IOException {
-        String line = json.toString(); // new ObjectMapper().writer().writeValueAsString(map);
-        JsonFactory jf = null;
-        byte[] b = line.getBytes(StandardCharsets.UTF_8);
-        long seekpos = this.json_log.appendLine(b);
-        jf = this.json_log.getJsonFactory(seekpos, b.length);
-        return jf;
+        if (this.binary) return append(JsonBinary.encodeLine(json, null, null));
+        ByteBuffer bb = JsonByteWriter.buffer();
+        JsonByteWriter.writeObject(bb, json, 0, 0);
+        return append(bb);
     }
     
     public JsonFactory write(JSONObject json, char opkey) throws IOException {
-        String line = json.toString(); // new ObjectMapper().writer().writeValueAsString(map);
-        JsonFactory jf = null;
-        StringBuilder sb = new StringBuilder();
-        sb.append('{').append('\"').append(OPERATION_KEY == null ? "" : new String(OPERATION_KEY, 0, OPERATION_KEY.length, StandardCharsets.UTF_8)).append('\"').append(':').append('\"').append(opkey).append('\"').append(',');
-        sb.append(line.substring(1));
-        byte[] b = sb.toString().getBytes(StandardCharsets.UTF_8);
+        if (this.binary) return append(JsonBinary.encodeLine(json, new String(OPERATION_KEY, StandardCharsets.US_ASCII), String.valueOf(opkey)));
+        ByteBuffer bb = JsonByteWriter.buffer();
+        bb.append('{').append('\"').append(OPERATION_KEY).append('\"').append(':').append('\"').append(opkey).append('\"');
+        if (json.length() > 0) {
+            bb.append(',');
+            JsonByteWriter.writeMembers(bb, json);
+        }
+        bb.append('}');
+        return append(bb);
+    }
+
+    private JsonFactory append(ByteBuffer bb) throws IOException {
+        // the buffer belongs to the thread and is reused with the next write, the log gets its own copy of the line
+        byte[] b = new byte[bb.length()];
+        bb.copyTo(b, 0);
+        return append(b);
+    }
+
+    private JsonFactory append(byte[] b) throws IOException {
         long seekpos = this.json_log.appendLine(b);
-        jf = this.json_log.getJsonFactory(seekpos, b.length);
-        return jf;
+        return this.json_log.getJsonFactory(seekpos, b.length);
+    }
+    
+    /**
+     * get the number of records in the current dump
+     * @return the number of records
+     */
+    public long size() {
+        return this.json_log.size();
+    }
+    
+    /**
+     * get a record of the current dump by its sequence number
+     * @param sequence the number of the record in the dump, starting with 0
+     * @return a lazy record
+     * @throws IOException
+     */
+    public JsonFactory get(long sequence) throws IOException {
+        return this.json_log.getJsonFactory(sequence);
     }
     
     public void buffer(Date created_at, Map<String, Object> map) throws IOException {
@@ -252,6 +308,27 @@ public class JsonRepository {
         return tailSet(dumps, count);
     }
 
+    /**
+     * read all records of a dump in the import directory. The lines are parsed in parallel with as many
+     * threads as the concurrency of the repository; compressed dumps (.gz) are decompressed while they are read.
+     * @param dumpName only the name, not the full path. The file must be in the import file path
+     * @param ordered if true, the records are delivered in the order of the dump
+     * @param consumer the receiver of the records; it is called on the current thread
+     * @return the number of records
+     * @throws IOException
+     */
+    public long importDump(String dumpName, boolean ordered, Consumer<JSONObject> consumer) throws IOException {
+        File f = new File(this.dump_dir_import, dumpName);
+        JsonLinesReader reader = new JsonLinesReader(Math.max(1, this.concurrency));
+        try (InputStream is = dumpName.endsWith(".gz") ?
+                new GZIPInputStream(new FileInputStream(f), 1 << 16) :
+                new BufferedInputStream(new FileInputStream(f), 1 << 16)) {
+            return reader.read(is, ordered, consumer);
+        } finally {
+            reader.close();
+        }
+    }
+
     /**
      * move a file from the import directory to the imported directory.
      * @param dumpName only the name, not the full path. The file must be in the import file path
@@ -26,13 +26,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.json.JSONObject;
 
 import net.yacy.grid.http.Log;
 import net.yacy.grid.tools.CacheMap;
+import net.yacy.grid.tools.CacheRegistry;
 
 /**
  * The JsonTray class is a very simple database storage solution for json objects.
@@ -77,6 +77,7 @@ public class JsonTray {
     private void ensureVolatileInitBase() {
         if (this.vol != null) return;
         this.vol = new CacheMap<String, JSONObject>(this.cachesize);
+        CacheRegistry.register("jsontray." + this.file_volatile.getName(), this.vol, 1000);
         if (!this.file_volatile.exists()) return;
 
         try {
@@ -124,9 +125,7 @@ public class JsonTray {
 
     public boolean has(String key) {
         ensureVolatileInit();
-        synchronized(this.vol) {
-            if (this.vol.exist(key)) return true;
-        }
+        if (this.vol.exist(key)) return true;
         return this.per.has(key);
     }
 
@@ -142,20 +141,13 @@ public class JsonTray {
 
     private JsonTray putVolatile(String key, JSONObject value) {
         ensureVolatileInit();
-        synchronized (this.vol) {
-            this.vol.put(key, value);
-        }
+        this.vol.put(key, value);
         return this;
     }
 
     public JsonTray remove(String key) {
         ensureVolatileInit();
-        synchronized(this.vol) {
-            if (this.vol.exist(key)){
-                this.vol.remove(key);
-                return this;
-            }
-        }
+        if (this.vol.remove(key) != null) return this;
         if(this.per.has(key)){
             this.per.remove(key);
         }
@@ -169,10 +161,8 @@ public class JsonTray {
 
     public JSONObject getJSONObject(String key) {
         ensureVolatileInit();
-        synchronized(this.vol) {
-            JSONObject value = this.vol.get(key);
-            if (value != null) return value;
-        }
+        JSONObject value = this.vol.get(key);
+        if (value != null) return value;
         return this.per.getJSONObject(key);
     }
 
@@ -182,11 +172,8 @@ public class JsonTray {
             j.put(key, this.per.get(key));
         }
         ensureVolatileInit();
-        synchronized (this.vol) {
-            LinkedHashMap<String,JSONObject> map = this.vol.getMap();
-            for(String key : map.keySet()){
-                j.put(key, map.get(key));
-            }
+        for (Map.Entry<String, JSONObject> entry: this.vol.getMap().entrySet()) {
+            j.put(entry.getKey(), entry.getValue());
         }
         return j;
     }
@@ -195,9 +182,7 @@ public class JsonTray {
         ArrayList<String> keys = new ArrayList<>();
         keys.addAll(this.per.keySet());
         ensureVolatileInit();
-        synchronized (this.vol) {
-            keys.addAll(this.vol.getMap().keySet());
-        }
+        keys.addAll(this.vol.getMap().keySet());
         return keys;
     }
 
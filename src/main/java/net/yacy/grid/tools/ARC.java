@@ -23,6 +23,7 @@ package net.yacy.grid.tools;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,9 +34,23 @@ import java.util.Set;
  * or http://en.wikipedia.org/wiki/Adaptive_Replacement_Cache
  * This version omits the ghost entry handling which is described in ARC, and keeps both cache levels
  * at the same size.
+ * The AdaptiveARC implementation provides the complete algorithm including ghost lists.
  */
 public interface ARC<K, V> extends Iterable<Map.Entry<K, V>> {
 
+    /**
+     * a BatchLoader computes the values for many keys at once, i.e. for all misses of a computeIfAbsentAll
+     */
+    @FunctionalInterface
+    public interface BatchLoader<K, V> {
+        /**
+         * load values
+         * @param keys the keys which are not in the cache
+         * @return a map with the computed values; keys which cannot be computed are omitted
+         */
+        public Map<K, V> loadAll(Collection<K> keys);
+    }
+
     /**
      * get the size of the ARC. this returns the sum of main and ghost cache
      * @return the complete number of entries in the ARC cache
@@ -82,6 +97,63 @@ public interface ARC<K, V> extends Iterable<Map.Entry<K, V>> {
      */
     public V get(K s);
 
+    /**
+     * get many values from the cache at once. Partitioned caches take every partition lock only once.
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys);
+
+    /**
+     * put many values to the cache at once. Partitioned caches take every partition lock only once.
+     * @param map
+     */
+    public void putAll(Map<? extends K, ? extends V> map);
+
+    /**
+     * get many values from the cache and compute the missing values with one call to a loader.
+     * The computed values are put to the cache.
+     * @param keys
+     * @param loader the loader which computes the values for all keys which are not in the cache
+     * @return a map with all keys that are either in the cache or could be loaded and their values
+     */
+    public default Map<K, V> computeIfAbsentAll(final Collection<? extends K> keys, final BatchLoader<K, V> loader) {
+        final Map<K, V> result = getAll(keys);
+        if (result.size() >= keys.size()) return result;
+        final LinkedHashSet<K> missing = new LinkedHashSet<>();
+        for (final K key: keys) if (!result.containsKey(key)) missing.add(key);
+        if (missing.isEmpty()) return result;
+        final long start = System.nanoTime();
+        final Map<K, V> loaded = loader.loadAll(missing);
+        getStats().load(System.nanoTime() - start);
+        if (loaded != null && !loaded.isEmpty()) {
+            putAll(loaded);
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * check if an entry had been accessed more than once; such entries are in the frequency tier of the cache.
+     * This does not count as a reference to the entry.
+     * @param key
+     * @return true if the entry is in the frequency tier
+     */
+    public default boolean frequent(final K key) {
+        return false;
+    }
+
+    /**
+     * put an entry which had been stored in a snapshot to the cache. This is used for a warm start;
+     * an entry which is already in the cache is not overwritten.
+     * @param key
+     * @param value
+     * @param frequent true if the entry was in the frequency tier when the snapshot was written
+     */
+    public default void restore(final K key, final V value, final boolean frequent) {
+        insertIfAbsent(key, value);
+    }
+
     /**
      * check if the map contains the value
      * @param value
@@ -96,6 +168,23 @@ public interface ARC<K, V> extends Iterable<Map.Entry<K, V>> {
      */
     public boolean containsKey(K key);
 
+    /**
+     * get a value without counting a hit or a miss and without a change of the replacement order;
+     * this is used to look at an entry without the effect of a real access
+     * @param s
+     * @return the value or null if there is no entry
+     */
+    public V peek(K s);
+
+    /**
+     * remove an entry only if it still has the given value; this is used to remove an entry which was
+     * looked up before without removing a new value which another thread put meanwhile
+     * @param s
+     * @param v the value which the entry must have, compared with equals
+     * @return true if the entry was removed
+     */
+    public boolean removeValue(K s, V v);
+
     /**
      * remove an entry from the cache
      * @param s
@@ -124,6 +213,20 @@ public interface ARC<K, V> extends Iterable<Map.Entry<K, V>> {
      */
     public Set<Map.Entry<K, V>> entrySet();
     
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters
+     */
+    public CacheStats getStats();
+
+    /**
+     * remove a share of the entries from the cache; this is called when the memory is short.
+     * The entries which are least likely to be used again are removed first.
+     * @param fraction a number between 0 and 1, the share of the entries which shall be removed
+     * @return the number of removed entries
+     */
+    public int shrink(double fraction);
+
     /**
      * a hash code for this ARC
      * @return a hash code
@@ -0,0 +1,315 @@
+/**
+ *  ARCSnapshot
+ *  warm-start snapshots of ARC caches
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import net.yacy.grid.http.Log;
+
+/**
+ * Snapshots of ARC caches which are written periodically and when the server stops, and which are
+ * read again asynchronously when the server starts, so that the caches are warm after a restart.
+ * Caches take part if they register with a name and codecs for their keys and values.
+ *
+ * A snapshot file has the following format, all numbers are big-endian:
+ * <pre>
+ * magic   "ARCS" (4 bytes)
+ * version int
+ * time    long, the time when the snapshot was written
+ * records: tier byte (0 = seen once, 1 = frequent), key length int, key bytes, value length int, value bytes
+ * end     tier byte 0xff
+ * crc     long, the CRC32 of all preceding bytes
+ * </pre>
+ * Frequent entries are written first so that they are restored first. The checksum is verified before any
+ * entry is restored; truncated or corrupt files and files of an unknown version are ignored.
+ * A snapshot file is written to a temporary file with a unique name which then replaces the previous snapshot.
+ */
+public class ARCSnapshot {
+
+    private final static byte[] MAGIC = "ARCS".getBytes(StandardCharsets.US_ASCII);
+    private final static int VERSION = 2;
+    private final static int END = 0xff;
+    private final static int MAX_LENGTH = 16 * 1024 * 1024; // a larger length is a sign of a corrupt file
+
+    /**
+     * a Codec translates keys or values to bytes and back
+     */
+    public interface Codec<T> {
+        public byte[] encode(T t);
+        public T decode(byte[] b) throws IOException;
+    }
+
+    public final static Codec<String> STRING = new Codec<String>() {
+        @Override public byte[] encode(final String s) {return s.getBytes(StandardCharsets.UTF_8);}
+        @Override public String decode(final byte[] b) {return new String(b, StandardCharsets.UTF_8);}
+    };
+
+    public final static Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override public byte[] encode(final byte[] b) {return b;}
+        @Override public byte[] decode(final byte[] b) {return b;}
+    };
+
+    public final static Codec<InetAddress> INET_ADDRESS = new Codec<InetAddress>() {
+        @Override public byte[] encode(final InetAddress a) {return a.getAddress();}
+        @Override public InetAddress decode(final byte[] b) throws IOException {return InetAddress.getByAddress(b);}
+    };
+
+    private final static class Snapshot<K, V> {
+        private final String name;
+        private final ARC<K, V> arc;
+        private final Codec<K> keyCodec;
+        private final Codec<V> valueCodec;
+        private final long maxAge;
+
+        public Snapshot(final String name, final ARC<K, V> arc, final Codec<K> keyCodec, final Codec<V> valueCodec, final long maxAge) {
+            this.name = name;
+            this.arc = arc;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.maxAge = maxAge;
+        }
+
+        private File file(final File dir) {
+            return new File(dir, this.name + ".snapshot");
+        }
+
+        /**
+         * write the snapshot
+         * @param dir
+         * @return the number of written entries
+         * @throws IOException
+         */
+        public int write(final File dir) throws IOException {
+            final List<Map.Entry<K, V>> seldom = new ArrayList<>(), frequent = new ArrayList<>();
+            for (final Map.Entry<K, V> entry: this.arc.entrySet()) {
+                if (this.arc.frequent(entry.getKey())) frequent.add(entry); else seldom.add(entry);
+            }
+            dir.mkdirs();
+            final File f = file(dir);
+            // the temporary file name is unique so that processes sharing the directory do not write into the same file
+            final File tmp = Files.createTempFile(dir.toPath(), f.getName() + ".", ".tmp").toFile();
+            try {
+                final CRC32 crc = new CRC32();
+                try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 65536), crc))) {
+                    out.write(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(System.currentTimeMillis());
+                    for (final Map.Entry<K, V> entry: frequent) writeRecord(out, 1, entry);
+                    for (final Map.Entry<K, V> entry: seldom) writeRecord(out, 0, entry);
+                    out.writeByte(END);
+                    out.writeLong(crc.getValue());
+                }
+                Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                if (tmp.exists()) tmp.delete();
+            }
+            return frequent.size() + seldom.size();
+        }
+
+        private void writeRecord(final DataOutputStream out, final int tier, final Map.Entry<K, V> entry) throws IOException {
+            final byte[] k = this.keyCodec.encode(entry.getKey());
+            final byte[] v = this.valueCodec.encode(entry.getValue());
+            out.writeByte(tier);
+            out.writeInt(k.length);
+            out.write(k);
+            out.writeInt(v.length);
+            out.write(v);
+        }
+
+        /**
+         * read the snapshot and restore all entries
+         * @param dir
+         * @return the number of restored entries
+         * @throws IOException
+         */
+        public int read(final File dir) throws IOException {
+            final File f = file(dir);
+            if (!f.exists()) return 0;
+            if (!verify(f)) {
+                Log.logger.info("snapshot " + f + " is truncated or corrupt, not restored");
+                return 0;
+            }
+            int c = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 65536))) {
+                final byte[] magic = new byte[MAGIC.length];
+                in.readFully(magic);
+                for (int i = 0; i < MAGIC.length; i++) if (magic[i] != MAGIC[i]) throw new IOException("not a snapshot file: " + f);
+                final int version = in.readInt();
+                if (version != VERSION) throw new IOException("unknown snapshot version " + version + ": " + f);
+                final long time = in.readLong();
+                if (System.currentTimeMillis() - time > this.maxAge) {
+                    Log.logger.info("snapshot " + f + " is outdated, not restored");
+                    return 0;
+                }
+                while (true) {
+                    final int tier = in.readUnsignedByte();
+                    if (tier == END) break;
+                    final byte[] k = readBytes(in);
+                    final byte[] v = readBytes(in);
+                    this.arc.restore(this.keyCodec.decode(k), this.valueCodec.decode(v), tier == 1);
+                    c++;
+                }
+            }
+            return c;
+        }
+
+        /**
+         * check the CRC32 trailer of a snapshot file
+         * @param f
+         * @return true if the file is complete and the checksum matches
+         * @throws IOException
+         */
+        private static boolean verify(final File f) throws IOException {
+            long remaining = f.length() - 8;
+            if (remaining < MAGIC.length + 4 + 8 + 1) return false;
+            final CRC32 crc = new CRC32();
+            try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(new FileInputStream(f), 65536), crc))) {
+                final byte[] b = new byte[65536];
+                while (remaining > 0) {
+                    final int l = in.read(b, 0, (int) Math.min(b.length, remaining));
+                    if (l < 0) return false;
+                    remaining -= l;
+                }
+                final long checksum = crc.getValue();
+                return in.readLong() == checksum;
+            } catch (final EOFException e) {
+                return false;
+            }
+        }
+
+        private static byte[] readBytes(final DataInputStream in) throws IOException {
+            final int length = in.readInt();
+            if (length < 0 || length > MAX_LENGTH) throw new EOFException("bad record length " + length);
+            final byte[] b = new byte[length];
+            in.readFully(b);
+            return b;
+        }
+    }
+
+    private final static Map<String, Snapshot<?, ?>> snapshots = new ConcurrentHashMap<>();
+    private static File dir = null;
+    private static ScheduledThreadPoolExecutor executor = null;
+    private static ScheduledFuture<?> periodic = null;
+
+    /**
+     * register a cache for snapshots; a cache with the same name is replaced.
+     * If the snapshot facility is already open, the snapshot of the cache is read in the background.
+     * @param name the name of the cache, this is also the name of the snapshot file
+     * @param arc the cache
+     * @param keyCodec the codec for the keys
+     * @param valueCodec the codec for the values
+     * @param maxAge the maximum age of a snapshot in milliseconds; older snapshots are not restored
+     */
+    public static synchronized <K, V> void register(final String name, final ARC<K, V> arc, final Codec<K> keyCodec, final Codec<V> valueCodec, final long maxAge) {
+        final Snapshot<K, V> snapshot = new Snapshot<K, V>(name, arc, keyCodec, valueCodec, maxAge);
+        snapshots.put(name, snapshot);
+        if (dir != null) load(snapshot);
+    }
+
+    public static synchronized void unregister(final String name) {
+        snapshots.remove(name);
+    }
+
+    /**
+     * start the snapshot facility. All registered caches are restored in the background; this does not block.
+     * @param snapshotDir the directory where the snapshot files are stored
+     * @param interval the time between two periodic snapshots in milliseconds; 0 for no periodic snapshots
+     */
+    public static synchronized void open(final File snapshotDir, final long interval) {
+        dir = snapshotDir;
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread t = new Thread(r, "ARCSnapshot");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (final Snapshot<?, ?> snapshot: snapshots.values()) load(snapshot);
+        if (periodic != null) periodic.cancel(false);
+        periodic = interval > 0 ? executor.scheduleWithFixedDelay(ARCSnapshot::store, interval, interval, TimeUnit.MILLISECONDS) : null;
+    }
+
+    private static void load(final Snapshot<?, ?> snapshot) {
+        final File d = dir;
+        executor.execute(() -> {
+            try {
+                final long start = System.currentTimeMillis();
+                final int c = snapshot.read(d);
+                if (c > 0) Log.logger.info("restored " + c + " entries of cache " + snapshot.name + " in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (final Throwable e) {
+                Log.logger.warn("cannot restore cache " + snapshot.name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * write snapshots of all registered caches
+     * @return the number of written entries
+     */
+    public static synchronized int store() {
+        final File d = dir;
+        if (d == null) return 0;
+        int c = 0;
+        for (final Snapshot<?, ?> snapshot: snapshots.values()) {
+            try {
+                c += snapshot.write(d);
+            } catch (final Throwable e) {
+                Log.logger.warn("cannot write snapshot of cache " + snapshot.name + ": " + e.getMessage());
+            }
+        }
+        return c;
+    }
+
+    /**
+     * stop the periodic snapshots and write a final snapshot of all caches
+     */
+    public static synchronized void close() {
+        if (periodic != null) periodic.cancel(false);
+        periodic = null;
+        if (executor != null) executor.shutdownNow();
+        executor = null;
+        store();
+        dir = null;
+    }
+}
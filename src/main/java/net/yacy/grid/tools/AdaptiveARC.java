@@ -0,0 +1,558 @@
+/**
+ *  AdaptiveARC
+ *  an Adaptive Replacement Cache with ghost lists and a self-tuning target size
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * This is a full implementation of the Adaptive Replacement Cache, "ARC", as described in
+ * http://www.almaden.ibm.com/cs/people/dmodha/ARC.pdf
+ * Other than the SimpleARC this keeps two lists of resident entries, T1 (seen once recently) and
+ * T2 (seen at least twice), together with two ghost lists B1 and B2 which store only the keys of
+ * entries that had been evicted from T1 and T2. A hit in a ghost list shifts the target size p of T1:
+ * a hit in B1 means that T1 was too small, a hit in B2 means that T2 was too small.
+ * That makes the cache resistant against scans of one-hit keys which would otherwise flush the
+ * frequently used entries.
+ * The number of resident entries is limited to cacheSize, the number of ghost keys is limited to cacheSize as well.
+ * Optionally a FrequencySketch can be used as admission filter (TinyLFU): then a completely new key is only
+ * admitted to a full cache if it had been requested more often recently than the entry which would be evicted for it.
+ */
+public final class AdaptiveARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, Iterable<Map.Entry<K, V>>, ARC<K, V> {
+
+    private final static boolean accessOrder = false; // we move entries explicitly, so insertion-order is sufficient
+
+    private final int cacheSize;
+    private int p; // the adaptive target size of t1
+    private final LinkedHashMap<K, V> t1, t2; // resident entries, the eldest entry is the LRU entry
+    private final LinkedHashSet<K> b1, b2; // ghost keys, the eldest key is the LRU key
+    private final CacheStats stats = new CacheStats();
+    private FrequencySketch<K> sketch; // the admission filter or null if every new key is admitted
+
+    public AdaptiveARC(final int cacheSize) {
+        this.cacheSize = Math.max(1, cacheSize);
+        this.p = 0;
+        this.sketch = null;
+        this.t1 = new LinkedHashMap<K, V>(16, 0.75f, accessOrder);
+        this.t2 = new LinkedHashMap<K, V>(16, 0.75f, accessOrder);
+        this.b1 = new LinkedHashSet<K>();
+        this.b2 = new LinkedHashSet<K>();
+    }
+
+    /**
+     * get the target size of the t1 list; this is for statistics and tests only
+     * @return the current adaptive target size of the recency list
+     */
+    public synchronized int target() {
+        return this.p;
+    }
+
+    /**
+     * switch the TinyLFU admission filter on or off. If switched on, every get is recorded in a
+     * frequency sketch and a new key is only stored in a full cache if its estimated frequency
+     * is higher than that of the entry which would be evicted. Keys from the ghost lists are always admitted.
+     * @param admission true to use the admission filter
+     */
+    public synchronized void setAdmission(final boolean admission) {
+        this.sketch = admission ? new FrequencySketch<K>(this.cacheSize) : null;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized void insert(final K s, final V v) {
+        admit(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * do not return a previous content value
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized void insertIfAbsent(final K s, final V v) {
+        if (this.t1.containsKey(s) || this.t2.containsKey(s)) return;
+        admit(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * return a previous content value
+     * @param s
+     * @param v
+     * @return the value before inserting the new value
+     */
+    @Override
+    public final synchronized V putIfAbsent(final K s, final V v) {
+        V o = this.t2.get(s);
+        if (o != null) return o;
+        o = this.t1.get(s);
+        if (o != null) return o;
+        admit(s, v);
+        return null;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized V put(final K s, final V v) {
+        return admit(s, v);
+    }
+
+    /**
+     * get a value from the cache. A hit moves the entry to the MRU position of t2.
+     * @param s
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final synchronized V get(final Object s) {
+        if (this.sketch != null) this.sketch.increment((K) s);
+        V v = this.t1.remove(s);
+        if (v != null) {
+            this.t2.put((K) s, v);
+            this.stats.hit();
+            return v;
+        }
+        v = this.t2.remove(s);
+        if (v != null) {
+            this.t2.put((K) s, v);
+            this.stats.hit();
+            return v;
+        }
+        this.stats.miss();
+        return null;
+    }
+
+    /**
+     * put an entry to the cache according to the ARC replacement rules
+     * @param s the key
+     * @param v the value
+     * @return the previous value if the entry was resident
+     */
+    private V admit(final K s, final V v) {
+        // case I: the key is resident; this is a re-reference
+        V r = this.t1.remove(s);
+        if (r == null) r = this.t2.remove(s);
+        if (r != null) {
+            this.t2.put(s, v);
+            return r;
+        }
+        final boolean ghost = this.b1.contains(s) || this.b2.contains(s);
+        if (!ghost && this.sketch != null && this.t1.size() + this.t2.size() >= this.cacheSize) {
+            // the admission filter decides if the new key may replace the victim
+            final K victim = this.t1.size() >= this.cacheSize ? eldest(this.t1.keySet()) : victim(false);
+            if (victim != null && !this.sketch.admit(s, victim)) return null;
+        }
+        this.stats.insert();
+
+        // case II: the key is in ghost list b1; t1 was too small
+        if (this.b1.remove(s)) {
+            final int delta = Math.max(1, this.b2.size() / Math.max(1, this.b1.size() + 1));
+            this.p = Math.min(this.cacheSize, this.p + delta);
+            replace(false);
+            this.t2.put(s, v);
+            return null;
+        }
+
+        // case III: the key is in ghost list b2; t2 was too small
+        if (this.b2.remove(s)) {
+            final int delta = Math.max(1, this.b1.size() / Math.max(1, this.b2.size() + 1));
+            this.p = Math.max(0, this.p - delta);
+            replace(true);
+            this.t2.put(s, v);
+            return null;
+        }
+
+        // case IV: the key is completely new
+        final int l1 = this.t1.size() + this.b1.size();
+        if (l1 >= this.cacheSize) {
+            if (this.t1.size() < this.cacheSize) {
+                removeEldest(this.b1);
+                replace(false);
+            } else {
+                // b1 is empty and t1 holds the whole cache; drop the LRU entry of t1 without a ghost
+                if (removeEldest(this.t1) != null) this.stats.evict();
+            }
+        } else {
+            final int total = l1 + this.t2.size() + this.b2.size();
+            if (total >= this.cacheSize) {
+                if (total >= 2 * this.cacheSize) removeEldest(this.b2);
+                replace(false);
+            }
+        }
+        this.t1.put(s, v);
+        return null;
+    }
+
+    /**
+     * find the entry which would be moved to a ghost list by replace
+     * @param inB2 true if the key which causes the replacement was found in b2
+     * @return the key of the LRU entry of t1 or t2
+     */
+    private K victim(final boolean inB2) {
+        final int t1size = this.t1.size();
+        if (t1size > 0 && (t1size > this.p || (inB2 && t1size == this.p) || this.t2.isEmpty())) return eldest(this.t1.keySet());
+        return eldest(this.t2.keySet());
+    }
+
+    private static <K> K eldest(final Set<K> set) {
+        final Iterator<K> i = set.iterator();
+        return i.hasNext() ? i.next() : null;
+    }
+
+    /**
+     * make room for one resident entry by moving a LRU entry from t1 or t2 to its ghost list.
+     * This does nothing if the resident lists have still space left.
+     * @param inB2 true if the key which causes the replacement was found in b2
+     */
+    private void replace(final boolean inB2) {
+        if (this.t1.size() + this.t2.size() < this.cacheSize) return;
+        final int t1size = this.t1.size();
+        if (t1size > 0 && (t1size > this.p || (inB2 && t1size == this.p) || this.t2.isEmpty())) {
+            final K k = removeEldest(this.t1);
+            if (k != null) {
+                this.b1.add(k);
+                this.stats.evict();
+            }
+        } else {
+            final K k = removeEldest(this.t2);
+            if (k != null) {
+                this.b2.add(k);
+                this.stats.evict();
+            }
+        }
+        // the ghost lists must not grow beyond the directory size
+        while (this.b1.size() + this.b2.size() > this.cacheSize) {
+            if (this.b1.size() > this.b2.size()) removeEldest(this.b1); else removeEldest(this.b2);
+        }
+    }
+
+    private static <K> K removeEldest(final LinkedHashSet<K> set) {
+        final Iterator<K> i = set.iterator();
+        if (!i.hasNext()) return null;
+        final K k = i.next();
+        i.remove();
+        return k;
+    }
+
+    private static <K, V> K removeEldest(final LinkedHashMap<K, V> map) {
+        final Iterator<K> i = map.keySet().iterator();
+        if (!i.hasNext()) return null;
+        final K k = i.next();
+        i.remove();
+        return k;
+    }
+
+    /**
+     * get many values from the cache with one lock acquisition
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    @Override
+    public final synchronized Map<K, V> getAll(final Collection<? extends K> keys) {
+        final Map<K, V> result = new HashMap<K, V>();
+        for (final K key: keys) {
+            final V v = get(key);
+            if (v != null) result.put(key, v);
+        }
+        return result;
+    }
+
+    /**
+     * put many values to the cache with one lock acquisition
+     * @param map
+     */
+    @Override
+    public final synchronized void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * check if an entry is in t2
+     * @param key
+     * @return true if the entry had been accessed more than once
+     */
+    @Override
+    public final synchronized boolean frequent(final K key) {
+        return this.t2.containsKey(key);
+    }
+
+    /**
+     * put an entry from a snapshot into t1 or t2; this is not counted as insert.
+     * A snapshot only fills free space, it does not evict any entry.
+     * @param key
+     * @param value
+     * @param frequent true to put the entry into t2
+     */
+    @Override
+    public final synchronized void restore(final K key, final V value, final boolean frequent) {
+        if (this.t1.containsKey(key) || this.t2.containsKey(key)) return;
+        if (this.t1.size() + this.t2.size() >= this.cacheSize) return;
+        if (frequent) this.t2.put(key, value); else this.t1.put(key, value);
+    }
+
+    /**
+     * check if the map contains the value
+     * @param value
+     * @return the keys that have the given value
+     */
+    @Override
+    public final synchronized Collection<K> getKeys(final V value) {
+        final ArrayList<K> keys = new ArrayList<K>();
+        for (final Map.Entry<K, V> entry: this.t2.entrySet()) {
+            if (value.equals(entry.getValue())) keys.add(entry.getKey());
+        }
+        for (final Map.Entry<K, V> entry: this.t1.entrySet()) {
+            if (value.equals(entry.getValue())) keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * check if the map contains the key. This does not count as a reference to the entry.
+     * @param s
+     * @return true if the key is resident
+     */
+    @Override
+    public final synchronized boolean containsKey(final Object s) {
+        return this.t2.containsKey(s) || this.t1.containsKey(s);
+    }
+
+    /**
+     * get a value without counting it in the statistics and in the admission sketch and without moving it to t2
+     * @param s
+     * @return the value or null
+     */
+    @Override
+    public final synchronized V peek(final K s) {
+        final V v = this.t1.get(s);
+        return v == null ? this.t2.get(s) : v;
+    }
+
+    @Override
+    public final synchronized boolean removeValue(final K s, final V v) {
+        V r = this.t1.get(s);
+        if (r != null) {
+            if (!r.equals(v)) return false;
+            this.t1.remove(s);
+            return true;
+        }
+        r = this.t2.get(s);
+        if (r == null || !r.equals(v)) return false;
+        this.t2.remove(s);
+        return true;
+    }
+
+    /**
+     * remove an entry from the cache. This also removes the key from the ghost lists.
+     * @param s
+     * @return the old value
+     */
+    @Override
+    public final synchronized V remove(final Object s) {
+        this.b1.remove(s);
+        this.b2.remove(s);
+        final V r = this.t2.remove(s);
+        if (r != null) return r;
+        return this.t1.remove(s);
+    }
+
+    /**
+     * clear the cache
+     */
+    @Override
+    public final synchronized void clear() {
+        this.t1.clear();
+        this.t2.clear();
+        this.b1.clear();
+        this.b2.clear();
+        this.p = 0;
+    }
+
+    /**
+     * remove a share of the resident entries, the LRU entries of t1 first and then those of t2.
+     * The ghost lists are shortened by the same share.
+     * @param fraction the share of entries to remove
+     * @return the number of removed resident entries
+     */
+    @Override
+    public final synchronized int shrink(final double fraction) {
+        final int n = (int) Math.ceil((this.t1.size() + this.t2.size()) * fraction);
+        int c = 0;
+        while (c < n && removeEldest(this.t1) != null) c++;
+        while (c < n && removeEldest(this.t2) != null) c++;
+        for (int g = (int) Math.ceil(this.b1.size() * fraction); g > 0; g--) removeEldest(this.b1);
+        for (int g = (int) Math.ceil(this.b2.size() * fraction); g > 0; g--) removeEldest(this.b2);
+        this.p = Math.min(this.p, this.t1.size());
+        this.stats.evict(c);
+        return c;
+    }
+
+    /**
+     * get the size of the ARC. this returns the number of resident entries; ghost keys are not counted
+     * @return the number of entries in the ARC cache
+     */
+    @Override
+    public final synchronized int size() {
+        return this.t1.size() + this.t2.size();
+    }
+
+    /**
+     * iterator implements the Iterable interface
+     */
+    @Override
+    public final Iterator<Map.Entry<K, V>> iterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Return a Set view of the mappings contained in this map.
+     * This method is the basis for all methods that are implemented
+     * by a AbstractMap implementation
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public final synchronized Set<Map.Entry<K, V>> entrySet() {
+        final Set<Map.Entry<K, V>> m = new HashSet<Map.Entry<K, V>>();
+        for (final Map.Entry<K, V> entry: this.t1.entrySet()) m.add(entry);
+        for (final Map.Entry<K, V> entry: this.t2.entrySet()) m.add(entry);
+        return m;
+    }
+
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * a hash code for this ARC
+     * @return the identity hash code of the ARC
+     */
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        return this == o;
+    }
+
+    /**
+     * compute the hit ratio of a cache for a given access trace.
+     * Each access is a get; in case of a miss the key is inserted with insertIfAbsent.
+     * @param arc the cache to test
+     * @param trace the sequence of keys
+     * @return the hit ratio between 0.0 and 1.0
+     */
+    static double hitRatio(final ARC<String, String> arc, final String[] trace) {
+        int hit = 0;
+        for (final String key: trace) {
+            if (arc.get(key) != null) {
+                hit++;
+            } else {
+                arc.insertIfAbsent(key, key);
+            }
+        }
+        return ((double) hit) / ((double) trace.length);
+    }
+
+    /**
+     * create a trace which mixes accesses to a hot set with bursts of scans of one-hit keys,
+     * like a crawl burst through Digest.encodeMD5Raw would do
+     * @param length the length of the trace
+     * @param hotSize the number of frequently used keys
+     * @param scanProbability the probability that a scan burst is started at an access
+     * @param scanLength the number of one-hit keys in a scan burst
+     * @param r a random generator
+     * @return the trace
+     */
+    private static String[] mixedTrace(final int length, final int hotSize, final double scanProbability, final int scanLength, final Random r) {
+        final String[] trace = new String[length];
+        int scan = 0;
+        long oneHit = 0;
+        for (int i = 0; i < length; i++) {
+            if (scan == 0 && r.nextDouble() < scanProbability) scan = scanLength;
+            if (scan > 0) {
+                trace[i] = "s" + (oneHit++);
+                scan--;
+            } else {
+                // skewed access to the hot set: small numbers are more frequent
+                final double x = r.nextDouble();
+                trace[i] = "h" + ((int) (hotSize * x * x * x));
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * a hit-ratio comparison between the HashARC and the AdaptiveARC for mixed scan/hot workloads
+     * @param args
+     */
+    public static void main(final String[] args) {
+        final int cacheSize = 10000;
+        final int length = 2000000;
+        final Random r = new Random(0);
+        System.out.println("cacheSize = " + cacheSize + ", trace length = " + length);
+        for (final int hotSize: new int[]{cacheSize / 2, cacheSize, cacheSize * 2}) {
+            for (final double scanProbability: new double[]{0.0d, 0.00005d, 0.0002d}) {
+                final String[] trace = mixedTrace(length, hotSize, scanProbability, cacheSize / 2, r);
+                final double hash = hitRatio(new HashARC<String, String>(cacheSize), trace);
+                final double adaptive = hitRatio(new AdaptiveARC<String, String>(cacheSize), trace);
+                System.out.println(String.format("hot = %6d, scan = %.5f: HashARC = %.4f, AdaptiveARC = %.4f", hotSize, scanProbability, hash, adaptive));
+            }
+        }
+
+        // test correctness
+        final ARC<String, String> a = new AdaptiveARC<String, String>(cacheSize);
+        for (int i = 0; i < cacheSize * 3; i++) {
+            final String key = "k" + r.nextInt(cacheSize * 2);
+            a.put(key, "v" + key);
+            if (a.size() > cacheSize) System.out.println("size exceeded: " + a.size());
+            final String v = a.get(key);
+            if (v == null || !v.equals("v" + key)) System.out.println("wrong: " + key + " -> " + v);
+        }
+        System.out.println("finished test!");
+    }
+}
@@ -20,16 +20,25 @@
 
 package net.yacy.grid.tools;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * This class is inspired by https://code.google.com/p/jmzreader/source/browse/tools/braf/trunk/src/main/java/uk/ac/ebi/pride/tools/braf/BufferedRandomAccessFile.java
  * which is in turn an optimized version of the RandomAccessFile class as described by Nick Zhang on JavaWorld.com. The article can be found at http://www.javaworld.com/javaworld/javatips/jw-javatip26.html
  * The getNextLine method was rewritten in such a way that it returns a byte[] rather than a string which was not UTF-8 - friendly in it's original version.
  * The whole class was not concurrency-safe. Synchronization has been added to ensure consistency of buffer and seek position.
+ * Reads at a given position with read(byte[], long) do not use the buffer and the seek position: they are done with
+ * positional reads on a separate FileChannel, so concurrent readers do not block each other or a writer.
  */
 public class BufferedRandomAccessFile extends RandomAccessFile {
     
@@ -39,6 +48,13 @@ public class BufferedRandomAccessFile extends RandomAccessFile {
     private long real_pos = 0;
     
     private final int BUF_SIZE;
+    
+    private final static int READ_ATTEMPTS = 3; // the number of channels which are tried if other readers are interrupted
+    
+    private final String filename;
+    private final Object readerLock = new Object();
+    private volatile FileChannel reader; // the channel for positional reads, opened on the first use
+    private volatile boolean closed = false;
 
     /**
      * Creates a new instance of the BufferedRandomAccessFile.
@@ -50,6 +66,8 @@ public class BufferedRandomAccessFile extends RandomAccessFile {
      */
     public BufferedRandomAccessFile(String filename, String mode, int bufsize) throws IOException {
         super(filename, mode);
+        this.filename = filename;
+        this.reader = null;
         invalidate();
         BUF_SIZE = bufsize;
         buffer = new byte[BUF_SIZE];
@@ -158,9 +176,68 @@ public class BufferedRandomAccessFile extends RandomAccessFile {
         }
     }
 
-    public synchronized void read(final byte[] b, final long pos) throws IOException {
-        seekPrivate(pos);
-        read(b, 0, b.length);
+    /**
+     * Reads bytes at a position in the file. This does not change the seek position and it is not synchronized
+     * with the other methods: the bytes are read with a positional read from a separate channel, which can be
+     * done by any number of threads at the same time, also while lines are appended.
+     * @param b the buffer which is filled completely
+     * @param pos the byte position in the file
+     * @throws EOFException if the file ends before the buffer is filled
+     * @throws InterruptedIOException if the current thread was interrupted during the read
+     * @throws IOException if the file is closed
+     */
+    public void read(final byte[] b, final long pos) throws IOException {
+        final java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap(b);
+        for (int attempt = 1;; attempt++) {
+            final FileChannel channel = reader();
+            try {
+                while (bb.hasRemaining()) {
+                    int n = channel.read(bb, pos + bb.position());
+                    if (n < 0) throw new EOFException("end of file " + this.filename + " at " + (pos + bb.position()));
+                }
+                return;
+            } catch (ClosedChannelException e) {
+                // an interrupt of any reader closes the channel for all readers: the next read opens a new one
+                synchronized (this.readerLock) {
+                    if (this.reader == channel) this.reader = null;
+                }
+                if (e instanceof ClosedByInterruptException || Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("read of " + this.filename + " interrupted");
+                }
+                // the channel was closed by the interrupt of another reader: read the rest from a new channel
+                if (this.closed || attempt >= READ_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private FileChannel reader() throws IOException {
+        FileChannel channel = this.reader;
+        if (channel != null) return channel;
+        synchronized (this.readerLock) {
+            if (this.closed) throw new IOException("file " + this.filename + " is closed");
+            if (this.reader == null) this.reader = FileChannel.open(Paths.get(this.filename), StandardOpenOption.READ);
+            return this.reader;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.readerLock) {
+            this.closed = true;
+            if (this.reader != null) this.reader.close();
+            this.reader = null;
+        }
+        super.close();
+    }
+
+    /**
+     * Sets the length of the file; the buffer is cleared because it may hold bytes which are removed.
+     * @param newLength the new length
+     */
+    @Override
+    public synchronized void setLength(long newLength) throws IOException {
+        super.setLength(newLength);
+        invalidate();
     }
 
     /**
@@ -20,6 +20,7 @@
 
 package net.yacy.grid.tools;
 
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -73,6 +74,18 @@ public final class ByteBuffer extends OutputStream {
         return this.length == 0;
     }
 
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * make room for at least n more bytes, so that the following appends do not need to grow the buffer
+     * @param n the number of bytes
+     */
+    public void ensureCapacity(final int n) {
+        while (this.offset + this.length + n > this.buffer.length) grow();
+    }
+
     private void grow() {
         int newsize = this.buffer.length * 2 + 1;
         if (newsize < 256) newsize = 256;
@@ -128,6 +141,44 @@ public final class ByteBuffer extends OutputStream {
         return this;
     }
 
+    /**
+     * append characters which are all in the range 0..127 as bytes
+     * @param s the characters
+     * @param start the first character, inclusive
+     * @param end the last character, exclusive
+     * @return this
+     */
+    public ByteBuffer appendASCII(final CharSequence s, final int start, final int end) {
+        ensureCapacity(end - start);
+        int p = this.offset + this.length;
+        for (int i = start; i < end; i++) this.buffer[p++] = (byte) s.charAt(i);
+        this.length += end - start;
+        return this;
+    }
+
+    /**
+     * append the decimal representation of a number
+     * @param v the number
+     * @return this
+     */
+    public ByteBuffer appendDecimal(long v) {
+        if (v == Long.MIN_VALUE) return appendASCII("-9223372036854775808", 0, 20);
+        final boolean negative = v < 0;
+        if (negative) v = -v;
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) digits++;
+        final int n = negative ? digits + 1 : digits;
+        ensureCapacity(n);
+        int p = this.offset + this.length + n;
+        do {
+            this.buffer[--p] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v > 0);
+        if (negative) this.buffer[--p] = '-';
+        this.length += n;
+        return this;
+    }
+
     public ByteBuffer append(final byte[] bb, final int of, final int le) {
         write(bb, of, le);
         return this;
@@ -197,7 +248,7 @@ public final class ByteBuffer extends OutputStream {
     }
 
     public void copyTo(byte[] otherArray, int offset) {
-        System.arraycopy(this.buffer, 0, otherArray, offset, this.length);
+        System.arraycopy(this.buffer, this.offset, otherArray, offset, this.length);
     }
     
     public ByteBuffer trim(final int start) {
@@ -249,6 +300,10 @@ public final class ByteBuffer extends OutputStream {
         dest.flush();
     }
 
+    public void writeTo(final DataOutput dest) throws IOException {
+        dest.write(this.buffer, this.offset, this.length);
+    }
+
     public static boolean contains(final Collection<byte[]> collection, final byte[] key) {
         for (final byte[] v: collection) {
             if (equals(v, key)) return true;
@@ -0,0 +1,202 @@
+/**
+ *  CacheGovernor
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONObject;
+
+import net.yacy.grid.http.Log;
+
+/**
+ * The CacheGovernor watches the heap in the background and shrinks all caches in the CacheRegistry
+ * when the memory gets short. If the used share of the heap exceeds the soft threshold, the governor looks at
+ * the heap usage after the last garbage collection, as reported by the memory pools of the JVM; a used heap
+ * which is only full of garbage does not shrink the caches, and the governor never forces a garbage collection.
+ * If the heap usage after the last collection is above the threshold, every cache removes the same share of its
+ * entries. Because the usage after a collection does not change until the next collection, the caches are
+ * shrunk at most once per observed garbage collection. The share grows with the distance of the heap usage to the soft threshold, so that the caches shrink
+ * a little when the heap fills up and a lot when it is almost full. Beyond Memory.shortmemthreshold also the
+ * log buffer is cleared.
+ */
+public class CacheGovernor {
+
+    public final static float softmemthreshold = 0.75f;
+    private final static double MIN_SHED = 0.05d, MAX_SHED = 0.5d;
+
+    private static Thread sampler = null;
+    private static volatile long interval = 0;
+    private static volatile double lastUsage = 0.0d, lastUsageAfterGC = 0.0d, lastShed = 0.0d;
+    private final static List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    static {
+        for (final MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) heapPools.add(pool);
+        }
+    }
+    private static volatile long lastShedTime = 0, lastShedGCCount = -1;
+    private static final AtomicLong samples = new AtomicLong(0), sheds = new AtomicLong(0), shedEntries = new AtomicLong(0);
+
+    /**
+     * start the background sampling of the heap usage. If the governor is already running, only the interval is changed.
+     * @param intervalMillis the time between two samples in milliseconds
+     */
+    public static synchronized void start(final long intervalMillis) {
+        interval = intervalMillis;
+        if (sampler != null) return;
+        sampler = new Thread("CacheGovernor") {
+            @Override
+            public void run() {
+                while (interval > 0) {
+                    try {
+                        Thread.sleep(interval);
+                    } catch (final InterruptedException e) {
+                        break;
+                    }
+                    try {
+                        govern();
+                    } catch (final Throwable e) {
+                        Log.logger.warn("CacheGovernor", e);
+                    }
+                }
+            }
+        };
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * stop the background sampling
+     */
+    public static synchronized void stop() {
+        interval = 0;
+        if (sampler == null) return;
+        sampler.interrupt();
+        sampler = null;
+    }
+
+    /**
+     * compute the used share of the heap
+     * @return a number between 0 and 1
+     */
+    private static double usage() {
+        return ((double) Memory.used()) / ((double) Memory.assigned());
+    }
+
+    /**
+     * compute the used share of the heap after the last garbage collection of each memory pool
+     * @return a number between 0 and 1; 0 if there was no garbage collection yet
+     */
+    private static double usageAfterGC() {
+        long used = 0;
+        for (final MemoryPoolMXBean pool: heapPools) {
+            final MemoryUsage u = pool.getCollectionUsage();
+            if (u != null) used += u.getUsed();
+        }
+        return ((double) used) / ((double) Memory.assigned());
+    }
+
+    /**
+     * count the garbage collections of all collectors
+     * @return the sum of the collection counts
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans()) {
+            final long c = gc.getCollectionCount();
+            if (c > 0) count += c;
+        }
+        return count;
+    }
+
+    /**
+     * take one sample of the heap usage and shrink the caches if the memory is short
+     * @return the number of removed cache entries
+     */
+    public static int govern() {
+        samples.incrementAndGet();
+        double usage = usage();
+        lastUsage = usage;
+        if (usage < softmemthreshold) return 0;
+
+        // the heap may be full of garbage: use the memory which was still used after the last garbage collection
+        usage = usageAfterGC();
+        lastUsageAfterGC = usage;
+        if (usage < softmemthreshold) return 0;
+
+        // the usage after gc is stale until the next collection: a second shed would count the same memory again
+        final long gcCount = gcCount();
+        if (gcCount == lastShedGCCount) return 0;
+        lastShedGCCount = gcCount;
+        final boolean short_memory = usage >= Memory.shortmemthreshold;
+        return shed(Math.max(MIN_SHED, Math.min(MAX_SHED, (usage - softmemthreshold) / (1.0d - softmemthreshold))), short_memory);
+    }
+
+    /**
+     * shrink all registered caches
+     * @param fraction the share of entries which every cache shall remove
+     * @param short_memory if true, also other buffers are cleared
+     * @return the number of removed cache entries
+     */
+    public static int shed(final double fraction, final boolean short_memory) {
+        int c = 0;
+        for (final CacheRegistry.Registration r: CacheRegistry.all()) {
+            try {
+                c += r.shrink(fraction);
+            } catch (final Throwable e) {
+                Log.logger.warn("cannot shrink cache " + r.name, e);
+            }
+        }
+        if (short_memory) Log.clearCaches();
+        lastShed = fraction;
+        lastShedTime = System.currentTimeMillis();
+        sheds.incrementAndGet();
+        shedEntries.addAndGet(c);
+        Log.logger.info("CacheGovernor: heap usage " + ((int) (lastUsage * 100)) + "%, after gc " + ((int) (lastUsageAfterGC * 100)) + "%, removed " + ((int) (fraction * 100)) + "% of all cache entries: " + c);
+        return c;
+    }
+
+    /**
+     * report the state of the governor
+     * @return a json object with the heap usage and the shrink counters
+     */
+    public static JSONObject toJSON() {
+        final JSONObject json = new JSONObject(true);
+        json.put("running", interval > 0);
+        json.put("interval", interval);
+        json.put("soft_threshold", softmemthreshold);
+        json.put("short_threshold", Memory.shortmemthreshold);
+        json.put("heap_usage", lastUsage);
+        json.put("heap_usage_after_gc", lastUsageAfterGC);
+        json.put("samples", samples.get());
+        json.put("sheds", sheds.get());
+        json.put("shed_entries", shedEntries.get());
+        json.put("last_shed_fraction", lastShed);
+        json.put("last_shed_time", lastShedTime);
+        return json;
+    }
+}
@@ -6,12 +6,12 @@
  *  modify it under the terms of the GNU Lesser General Public
  *  License as published by the Free Software Foundation; either
  *  version 2.1 of the License, or (at your option) any later version.
- *  
+ *
  *  This library is distributed in the hope that it will be useful,
  *  but WITHOUT ANY WARRANTY; without even the implied warranty of
  *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
  *  Lesser General Public License for more details.
- *  
+ *
  *  You should have received a copy of the GNU Lesser General Public License
  *  along with this program in the file lgpl21.txt
  *  If not, see <http://www.gnu.org/licenses/>.
@@ -19,17 +19,114 @@
 
 package net.yacy.grid.tools;
 
-import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * A concurrent LRU cache. The entries are stored in a ConcurrentHashMap, so reads never block each other.
+ * The LRU order is kept in striped segments: every key belongs to one segment which has its own lock and
+ * its own list in access order. A read does not change the list; it only records the entry in a small
+ * ring buffer of its segment. The buffer is drained by the thread which fills it up, but only if the
+ * segment lock is free; otherwise the recording is simply overwritten later. The LRU order is therefore
+ * approximate, which is good enough for a cache. Writes take the segment lock, drain the buffer and
+ * evict the eldest entries of the segment.
+ */
 public class CacheMap<K,V> {
 
-    private int maxSize;
-    private LinkedHashMap<K, V> map;
-    
+    private final static int BUFFER_SIZE = 64; // must be a power of two
+    private final static int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    private final static class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private Node<K, V> prev, next; // access order within the segment, guarded by the segment lock
+        private boolean linked; // guarded by the segment lock
+        public Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final static class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicInteger bufferIndex = new AtomicInteger(0);
+        private Node<K, V> head, tail; // head is the least recently used entry
+        private int size = 0;
+
+        private void link(Node<K, V> n) {
+            n.prev = this.tail;
+            n.next = null;
+            if (this.tail == null) this.head = n; else this.tail.next = n;
+            this.tail = n;
+            n.linked = true;
+            this.size++;
+        }
+
+        private void unlink(Node<K, V> n) {
+            if (n.prev == null) this.head = n.next; else n.prev.next = n.next;
+            if (n.next == null) this.tail = n.prev; else n.next.prev = n.prev;
+            n.prev = null;
+            n.next = null;
+            n.linked = false;
+            this.size--;
+        }
+
+        private void moveToTail(Node<K, V> n) {
+            if (!n.linked || n == this.tail) return;
+            unlink(n);
+            link(n);
+        }
+
+        /**
+         * apply the buffered reads to the access order; must be called with the lock held
+         */
+        private void drain() {
+            for (int i = 0; i < BUFFER_SIZE; i++) {
+                Node<K, V> n = this.buffer.getAndSet(i, null);
+                if (n != null) moveToTail(n);
+            }
+        }
+
+        private void record(Node<K, V> n) {
+            int i = this.bufferIndex.getAndIncrement() & BUFFER_MASK;
+            this.buffer.lazySet(i, n);
+            if (i == BUFFER_MASK && this.lock.tryLock()) {
+                try {
+                    drain();
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private final int maxSize, segmentMaxSize, mask;
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final Segment<K, V>[] segments;
+    private final CacheStats stats;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public CacheMap(int maxSize) {
         this.maxSize = maxSize;
-        this.map = new LinkedHashMap<K, V>();
+        // use not more segments than processors and keep at least 16 entries in each segment
+        int n = 1;
+        while (n < Runtime.getRuntime().availableProcessors() && n * 32 <= maxSize) n = n * 2;
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) this.segments[i] = new Segment<K, V>();
+        this.mask = n - 1;
+        this.segmentMaxSize = Math.max(1, (maxSize + n - 1) / n);
+        this.map = new ConcurrentHashMap<K, Node<K, V>>(Math.min(maxSize, 1024), 0.75f, n);
+        this.stats = new CacheStats();
+    }
+
+    private Segment<K, V> segment(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return this.segments[h & this.mask];
     }
 
     public int size() {
@@ -39,70 +136,133 @@ public class CacheMap<K,V> {
     public int maxSize() {
         return this.maxSize;
     }
-    
+
     public void clear() {
-        this.map.clear();
-    }
-    
-    private void checkSize() {
-        if (this.map.size() >= this.maxSize) {
-            Iterator<K> i = this.map.keySet().iterator();
-            while (i.hasNext() && this.map.size() > this.maxSize) this.map.remove(i.next());
+        for (Segment<K, V> s: this.segments) {
+            s.lock.lock();
+            try {
+                s.drain();
+                // unlink every node: a reader may still record a removed node, which must then be ignored by drain()
+                while (s.head != null) {
+                    Node<K, V> eldest = s.head;
+                    s.unlink(eldest);
+                    this.map.remove(eldest.key, eldest);
+                }
+            } finally {
+                s.lock.unlock();
+            }
         }
     }
-    
+
     public boolean full() {
         return this.map.size() >= this.maxSize;
     }
-    
+
     public V put(K key, V value) {
-        V oldval;
-        synchronized (this.map) {
-            // make room; this may remove entries from the beginning of the list
-            checkSize();
-            
-            // we remove the value first to ensure that the value gets at the end of the list
-            oldval = this.map.remove(key);
-            
-            // the new value gets to the end of the list
-            this.map.put(key, value);
+        Segment<K, V> s = segment(key);
+        V oldval = null;
+        s.lock.lock();
+        try {
+            s.drain();
+            Node<K, V> n = this.map.get(key);
+            if (n == null) {
+                n = new Node<K, V>(key, value);
+                this.map.put(key, n);
+                s.link(n);
+                // make room; this removes entries from the beginning of the list
+                while (s.size > this.segmentMaxSize) {
+                    Node<K, V> eldest = s.head;
+                    s.unlink(eldest);
+                    this.map.remove(eldest.key, eldest);
+                    this.stats.evict();
+                }
+            } else {
+                oldval = n.value;
+                n.value = value;
+                s.moveToTail(n);
+            }
+        } finally {
+            s.lock.unlock();
         }
+        if (oldval == null) this.stats.insert();
         return oldval;
     }
-    
+
     public V get(K key) {
-        V value;
-        synchronized (this.map) {
-            // we remove the value to add it again at the end of the list
-            value = this.map.remove(key);
-            
-            // in case that the entry does not exist we are ready here
-            if (value == null) {
-                return null;
-            }
-            
-            // the old value gets to the end of the list
-            this.map.put(key, value);
+        Node<K, V> n = this.map.get(key);
+        if (n == null) {
+            this.stats.miss();
+            return null;
         }
-        return value;
+        this.stats.hit();
+        segment(key).record(n);
+        return n.value;
     }
-    
+
     public V remove(K key) {
-        synchronized (this.map) {
-            return this.map.remove(key);
+        Segment<K, V> s = segment(key);
+        s.lock.lock();
+        try {
+            Node<K, V> n = this.map.remove(key);
+            if (n == null) return null;
+            s.unlink(n);
+            return n.value;
+        } finally {
+            s.lock.unlock();
         }
     }
-    
+
     public boolean exist(K key) {
-        boolean exist = false;
-        synchronized (this.map) {
-            exist = this.map.containsKey(key);
+        return this.map.containsKey(key);
+    }
+
+    /**
+     * remove a share of the least recently used entries of every segment
+     * @param fraction a number between 0 and 1
+     * @return the number of removed entries
+     */
+    public int shrink(double fraction) {
+        int c = 0;
+        for (Segment<K, V> s: this.segments) {
+            s.lock.lock();
+            try {
+                s.drain();
+                int n = (int) Math.ceil(s.size * fraction);
+                while (n-- > 0 && s.head != null) {
+                    Node<K, V> eldest = s.head;
+                    s.unlink(eldest);
+                    this.map.remove(eldest.key, eldest);
+                    c++;
+                }
+            } finally {
+                s.lock.unlock();
+            }
         }
-        return exist;
+        this.stats.evict(c);
+        return c;
     }
-    
+
+    public CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * get a copy of the cache content. The entries of each segment are ordered from the least to
+     * the most recently used entry; the segments follow each other.
+     * @return a snapshot of the cache
+     */
     public LinkedHashMap<K,V> getMap(){
-    	return map;
+        LinkedHashMap<K,V> m = new LinkedHashMap<>();
+        for (Segment<K, V> s: this.segments) {
+            s.lock.lock();
+            try {
+                s.drain();
+                for (Node<K, V> n = s.head; n != null; n = n.next) m.put(n.key, n.value);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return m;
     }
-    
+
 }
@@ -0,0 +1,170 @@
+/**
+ *  CacheRegistry
+ *  Copyright 17.10.2026 by Michael Peter Christen, @0rb1t3r
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *  
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.json.JSONObject;
+
+/**
+ * A registry of all named caches in the application. Caches register themselves with a name,
+ * their statistics counters, a function to compute their size and a function to estimate their memory usage.
+ * The registry is read by the caches service to report the state of all caches.
+ * Caches which are registered with a Shrinker are asked by the CacheGovernor to remove entries when the memory is short.
+ */
+public class CacheRegistry {
+
+    /**
+     * a Shrinker removes a share of the entries of a cache
+     */
+    @FunctionalInterface
+    public interface Shrinker {
+        /**
+         * @param fraction a number between 0 and 1, the share of the entries which shall be removed
+         * @return the number of removed entries
+         */
+        public int shrink(double fraction);
+    }
+
+    public static class Registration {
+        public final String name;
+        public final CacheStats stats;
+        private final IntSupplier size;
+        private final LongSupplier memory;
+        private final Shrinker shrinker;
+        public Registration(final String name, final CacheStats stats, final IntSupplier size, final LongSupplier memory, final Shrinker shrinker) {
+            this.name = name;
+            this.stats = stats;
+            this.size = size;
+            this.memory = memory;
+            this.shrinker = shrinker;
+        }
+        public int size() {
+            return this.size.getAsInt();
+        }
+        /**
+         * @return the estimated number of bytes used by the cache
+         */
+        public long memory() {
+            return this.memory.getAsLong();
+        }
+        /**
+         * remove a share of the entries of the cache
+         * @param fraction a number between 0 and 1
+         * @return the number of removed entries; 0 if the cache cannot be shrinked
+         */
+        public int shrink(final double fraction) {
+            return this.shrinker == null ? 0 : this.shrinker.shrink(fraction);
+        }
+        public JSONObject toJSON() {
+            final JSONObject json = new JSONObject(true);
+            json.put("size", size());
+            json.put("memory", memory());
+            final JSONObject s = this.stats.toJSON();
+            for (final String key: s.keySet()) json.put(key, s.get(key));
+            return json;
+        }
+    }
+
+    private final static Map<String, Registration> registry = new ConcurrentHashMap<>();
+
+    /**
+     * register a cache; a cache with the same name is replaced
+     * @param name the name of the cache
+     * @param stats the statistics of the cache
+     * @param size a function which computes the number of entries in the cache
+     * @param memory a function which estimates the number of bytes used by the cache
+     */
+    public static void register(final String name, final CacheStats stats, final IntSupplier size, final LongSupplier memory) {
+        registry.put(name, new Registration(name, stats, size, memory, null));
+    }
+
+    /**
+     * register a cache which can be shrinked when the memory is short; a cache with the same name is replaced
+     * @param name the name of the cache
+     * @param stats the statistics of the cache
+     * @param size a function which computes the number of entries in the cache
+     * @param memory a function which estimates the number of bytes used by the cache
+     * @param shrinker a function which removes a share of the entries
+     */
+    public static void register(final String name, final CacheStats stats, final IntSupplier size, final LongSupplier memory, final Shrinker shrinker) {
+        registry.put(name, new Registration(name, stats, size, memory, shrinker));
+    }
+
+    /**
+     * register an ARC
+     * @param name the name of the cache
+     * @param arc the cache
+     * @param bytesPerEntry the estimated number of bytes used by each entry; for weighted ARCs the weight is used instead
+     * and for off-heap ARCs the allocated off-heap memory
+     */
+    public static void register(final String name, final ARC<?, ?> arc, final long bytesPerEntry) {
+        register(name, arc.getStats(), arc::size, () -> {
+            if (arc instanceof OffHeapARC) return ((OffHeapARC<?>) arc).offHeapBytes();
+            if (arc instanceof ConcurrentARC) {
+                final long w = ((ConcurrentARC<?, ?>) arc).weight();
+                if (w >= 0) return w;
+            }
+            return bytesPerEntry * arc.size();
+        }, arc::shrink);
+    }
+
+    /**
+     * register a CacheMap
+     * @param name the name of the cache
+     * @param map the cache
+     * @param bytesPerEntry the estimated number of bytes used by each entry
+     */
+    public static void register(final String name, final CacheMap<?, ?> map, final long bytesPerEntry) {
+        register(name, map.getStats(), map::size, () -> bytesPerEntry * map.size(), map::shrink);
+    }
+
+    public static void unregister(final String name) {
+        registry.remove(name);
+    }
+
+    public static Registration get(final String name) {
+        return registry.get(name);
+    }
+
+    /**
+     * get all registered caches
+     * @return a copy of the registrations
+     */
+    public static Collection<Registration> all() {
+        return new ArrayList<>(registry.values());
+    }
+
+    /**
+     * report all caches
+     * @return a json object with the cache names as keys, sorted by name
+     */
+    public static JSONObject toJSON() {
+        final JSONObject json = new JSONObject(true);
+        for (final Registration r: new TreeMap<>(registry).values()) json.put(r.name, r.toJSON());
+        return json;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ *  CacheStats
+ *  Copyright 17.10.2026 by Michael Peter Christen, @0rb1t3r
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *  
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.JSONObject;
+
+/**
+ * Statistics counters for a cache. All counters are striped (LongAdder) so they can be
+ * incremented from many threads without contention. A CacheStats object may have children;
+ * then all counter values are the sum of the own counters and the counters of the children.
+ * This is used by partitioned caches like the ConcurrentARC which report the sum of their partitions.
+ */
+public class CacheStats {
+
+    private final LongAdder hits, misses, inserts, evictions, loads, loadNanos;
+    private final CacheStats[] children;
+
+    public CacheStats() {
+        this(new CacheStats[0]);
+    }
+
+    public CacheStats(final CacheStats... children) {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.inserts = new LongAdder();
+        this.evictions = new LongAdder();
+        this.loads = new LongAdder();
+        this.loadNanos = new LongAdder();
+        this.children = children;
+    }
+
+    public void hit() {
+        this.hits.increment();
+    }
+
+    public void miss() {
+        this.misses.increment();
+    }
+
+    public void insert() {
+        this.inserts.increment();
+    }
+
+    public void evict() {
+        this.evictions.increment();
+    }
+
+    public void evict(final long count) {
+        this.evictions.add(count);
+    }
+
+    /**
+     * a hit which was counted by a child is corrected to a miss and an eviction,
+     * i.e. if the entry turned out to be expired
+     */
+    public void hitToEviction() {
+        this.hits.decrement();
+        this.misses.increment();
+        this.evictions.increment();
+    }
+
+    /**
+     * record the time to compute a value which was missing in the cache
+     * @param nanos the time in nanoseconds
+     */
+    public void load(final long nanos) {
+        this.loads.increment();
+        this.loadNanos.add(nanos);
+    }
+
+    public long hits() {
+        long c = this.hits.sum();
+        for (final CacheStats s: this.children) c += s.hits();
+        return c;
+    }
+
+    public long misses() {
+        long c = this.misses.sum();
+        for (final CacheStats s: this.children) c += s.misses();
+        return c;
+    }
+
+    public long inserts() {
+        long c = this.inserts.sum();
+        for (final CacheStats s: this.children) c += s.inserts();
+        return c;
+    }
+
+    public long evictions() {
+        long c = this.evictions.sum();
+        for (final CacheStats s: this.children) c += s.evictions();
+        return c;
+    }
+
+    public long loads() {
+        long c = this.loads.sum();
+        for (final CacheStats s: this.children) c += s.loads();
+        return c;
+    }
+
+    public long loadNanos() {
+        long c = this.loadNanos.sum();
+        for (final CacheStats s: this.children) c += s.loadNanos();
+        return c;
+    }
+
+    /**
+     * get the hit ratio
+     * @return hits / (hits + misses) or 0 if there was no request yet
+     */
+    public double hitRatio() {
+        final long h = hits();
+        final long r = h + misses();
+        return r == 0 ? 0.0d : ((double) h) / ((double) r);
+    }
+
+    public void reset() {
+        this.hits.reset();
+        this.misses.reset();
+        this.inserts.reset();
+        this.evictions.reset();
+        this.loads.reset();
+        this.loadNanos.reset();
+        for (final CacheStats s: this.children) s.reset();
+    }
+
+    public JSONObject toJSON() {
+        final JSONObject json = new JSONObject(true);
+        final long loads = loads();
+        json.put("hits", hits());
+        json.put("misses", misses());
+        json.put("hit_ratio", hitRatio());
+        json.put("inserts", inserts());
+        json.put("evictions", evictions());
+        json.put("loads", loads);
+        json.put("load_time_avg_ms", loads == 0 ? 0.0d : ((double) loadNanos()) / ((double) loads) / 1000000.0d);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return toJSON().toString();
+    }
+}
@@ -33,18 +33,20 @@ public final class ComparableARC<K, V> extends SimpleARC<K, V> implements Map<K,
     
     public ComparableARC(final int cacheSize, Comparator<? super K> comparator) {
         super.cacheSize = cacheSize / 2;
-        super.levelA = new LimitedTreeMap<K, V>(this.cacheSize, comparator);
-        super.levelB = new LimitedTreeMap<K, V>(this.cacheSize, comparator);
+        super.levelA = new LimitedTreeMap<K, V>(this.cacheSize, comparator, this.stats);
+        super.levelB = new LimitedTreeMap<K, V>(this.cacheSize, comparator, this.stats);
     }
     
     private static class LimitedTreeMap<K, V> extends TreeMap<K, V> {
         private static final long serialVersionUID = -2276429187676080820L;
         int limit;
         LinkedList<K> keys;
-        public LimitedTreeMap(final int cacheSize, Comparator<? super K> comparator) {
+        CacheStats stats;
+        public LimitedTreeMap(final int cacheSize, Comparator<? super K> comparator, CacheStats stats) {
             super(comparator);
             this.limit = cacheSize;
             this.keys = new LinkedList<K>();
+            this.stats = stats;
         }
         @Override
         public synchronized V get(Object k) {
@@ -59,6 +61,7 @@ public final class ComparableARC<K, V> extends SimpleARC<K, V> implements Map<K,
                 assert w != null;
                 V t = super.remove(w);
                 assert t != null : "keys.size() = " + keys.size() + ", limit = " + this.limit;
+                this.stats.evict();
             }
             return r;
         }
@@ -50,6 +50,7 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
 
     private final int mask;
     private final ARC<K, V> arc[];
+    private final CacheStats stats;
 
     /**
      * create a concurrent ARC based on a HashARC. The type of the key elements must implement a hashing function
@@ -66,10 +67,50 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         for (int i = 0; i < this.arc.length; i++) this.arc[i] = new HashARC<K, V>(partitionSize);
         m -= 1;
         this.mask = m;
+        this.stats = partitionStats(this.arc);
     }
 
     /**
-     * create a concurrent ARC based on a ComparableARC
+     * create a concurrent ARC based on either a HashARC or an AdaptiveARC.
+     * The type of the key elements must implement a hashing function
+     * @param cacheSize the number of maximum entries
+     * @param partitions the number of partitions
+     * @param adaptive if true, each partition is an AdaptiveARC with ghost lists, otherwise a HashARC
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentARC(final int cacheSize, final int partitions, final boolean adaptive) {
+        int m = 1;
+        while (m < partitions) m = m * 2;
+        int partitionSize = cacheSize / m;
+        if (partitionSize < 4) partitionSize = 4;
+        this.arc = (ARC<K, V>[]) Array.newInstance(adaptive ? AdaptiveARC.class : HashARC.class, m);
+        for (int i = 0; i < this.arc.length; i++) this.arc[i] = adaptive ? new AdaptiveARC<K, V>(partitionSize) : new HashARC<K, V>(partitionSize);
+        m -= 1;
+        this.mask = m;
+        this.stats = partitionStats(this.arc);
+    }
+
+    /**
+     * create a concurrent ARC based on a WeightedARC. The cache is not bounded by the number of entries
+     * but by the sum of the weights of all entries, i.e. the number of retained bytes.
+     * @param maxWeight the maximum sum of all weights
+     * @param partitions the number of partitions
+     * @param weigher the function which computes the weight of an entry
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentARC(final long maxWeight, final int partitions, final WeightedARC.Weigher<? super K, ? super V> weigher) {
+        int m = 1;
+        while (m < partitions) m = m * 2;
+        final long partitionWeight = maxWeight / m;
+        this.arc = (ARC<K, V>[]) Array.newInstance(WeightedARC.class, m);
+        for (int i = 0; i < this.arc.length; i++) this.arc[i] = new WeightedARC<K, V>(partitionWeight, weigher);
+        m -= 1;
+        this.mask = m;
+        this.stats = partitionStats(this.arc);
+    }
+
+    /**
+     * create a concurrent ARC based on an OrderedARC
      * @param cacheSize the number of maximum entries
      * @param partitions the number of partitions
      * @param comparator a comparator for the key object which may be of type byte[]
@@ -80,10 +121,24 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         while (m < partitions) m = m * 2;
         int partitionSize = cacheSize / m;
         if (partitionSize < 4) partitionSize = 4;
-        this.arc = (ARC<K, V>[]) Array.newInstance(ComparableARC.class, m);
-        for (int i = 0; i < this.arc.length; i++) this.arc[i] = new ComparableARC<K, V>(partitionSize, comparator);
+        this.arc = (ARC<K, V>[]) Array.newInstance(OrderedARC.class, m);
+        for (int i = 0; i < this.arc.length; i++) this.arc[i] = new OrderedARC<K, V>(partitionSize, comparator);
         m -= 1;
         this.mask = m;
+        this.stats = partitionStats(this.arc);
+    }
+
+    /**
+     * switch the TinyLFU admission filter of the partitions on or off.
+     * This is only possible if the ARC was created with adaptive partitions.
+     * @param admission true to admit new keys to a full partition only if they are more popular than the victim
+     * @throws UnsupportedOperationException if the partitions are not AdaptiveARC instances
+     */
+    public final void setAdmission(final boolean admission) {
+        for (final ARC<K, V> a: this.arc) {
+            if (!(a instanceof AdaptiveARC)) throw new UnsupportedOperationException("admission requires adaptive partitions");
+            ((AdaptiveARC<K, V>) a).setAdmission(admission);
+        }
     }
 
     /**
@@ -140,6 +195,55 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         return this.arc[getPartition(s)].get((K) s);
     }
 
+    /**
+     * get many values from the cache. The keys are grouped by partition, so every partition lock is taken only once.
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public final Map<K, V> getAll(final Collection<? extends K> keys) {
+        final ArrayList<K>[] groups = new ArrayList[this.arc.length];
+        for (final K key: keys) {
+            final int p = getPartition(key);
+            if (groups[p] == null) groups[p] = new ArrayList<K>();
+            groups[p].add(key);
+        }
+        final Map<K, V> result = new HashMap<K, V>();
+        for (int p = 0; p < groups.length; p++) {
+            if (groups[p] != null) result.putAll(this.arc[p].getAll(groups[p]));
+        }
+        return result;
+    }
+
+    /**
+     * put many values to the cache. The entries are grouped by partition, so every partition lock is taken only once.
+     * @param map
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public final void putAll(final Map<? extends K, ? extends V> map) {
+        final HashMap<K, V>[] groups = new HashMap[this.arc.length];
+        for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) {
+            final int p = getPartition(entry.getKey());
+            if (groups[p] == null) groups[p] = new HashMap<K, V>();
+            groups[p].put(entry.getKey(), entry.getValue());
+        }
+        for (int p = 0; p < groups.length; p++) {
+            if (groups[p] != null) this.arc[p].putAll(groups[p]);
+        }
+    }
+
+    @Override
+    public final boolean frequent(final K key) {
+        return this.arc[getPartition(key)].frequent(key);
+    }
+
+    @Override
+    public final void restore(final K key, final V value, final boolean frequent) {
+        this.arc[getPartition(key)].restore(key, value, frequent);
+    }
+
     /**
      * check if the map contains the value
      * @param value
@@ -164,6 +268,16 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         return this.arc[getPartition(s)].containsKey((K) s);
     }
 
+    @Override
+    public final V peek(final K s) {
+        return this.arc[getPartition(s)].peek(s);
+    }
+
+    @Override
+    public final boolean removeValue(final K s, final V v) {
+        return this.arc[getPartition(s)].removeValue(s, v);
+    }
+
     /**
      * remove an entry from the cache
      * @param s
@@ -194,6 +308,31 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         return s;
     }
 
+    /**
+     * remove a share of the entries from every partition
+     * @param fraction the share of entries to remove
+     * @return the number of removed entries
+     */
+    @Override
+    public final int shrink(final double fraction) {
+        int c = 0;
+        for (final ARC<K, V> a: this.arc) c += a.shrink(fraction);
+        return c;
+    }
+
+    /**
+     * get the weight of the ARC. This is only available if the ARC was created with a weigher.
+     * @return the sum of the weights of all entries or -1 if the partitions are not weighted
+     */
+    public final long weight() {
+        long w = 0;
+        for (final ARC<K, V> a: this.arc) {
+            if (!(a instanceof WeightedARC)) return -1;
+            w += ((WeightedARC<K, V>) a).weight();
+        }
+        return w;
+    }
+
     /**
      * iterator implements the Iterable interface
      */
@@ -218,6 +357,21 @@ public final class ConcurrentARC<K, V> extends AbstractMap<K, V> implements Map<
         return m;
     }
 
+    private static CacheStats partitionStats(final ARC<?, ?>[] arc) {
+        final CacheStats[] s = new CacheStats[arc.length];
+        for (int i = 0; i < arc.length; i++) s[i] = arc[i].getStats();
+        return new CacheStats(s);
+    }
+
+    /**
+     * get the statistics counters of this ARC
+     * @return the sum of the hit, miss, insert and eviction counters of all partitions
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
     /**
      * a hash code for this ARC
      * @return a hash code
@@ -28,6 +28,9 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -45,14 +48,32 @@ public class Digest {
 
 	public static Queue<MessageDigest> digestPool = new ConcurrentLinkedQueue<MessageDigest>();
 
-    private static final int md5CacheSize = Math.max(1000, Math.min(1000000, (int) (Memory.available() / 50000L)));
-    private static ARC<String, byte[]> md5Cache = null;
+    private static final int md5CacheSize = Math.max(1000, Math.min(4000000, (int) (Memory.available() / 20000L))); // the CacheGovernor shrinks the cache if the memory gets short
+    private static volatile ARC<String, byte[]> md5Cache = null;
     static {
         try {
-            md5Cache = new ConcurrentARC<String, byte[]>(md5CacheSize, Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+            final ConcurrentARC<String, byte[]> cache = new ConcurrentARC<String, byte[]>(md5CacheSize, Math.max(8, 2 * Runtime.getRuntime().availableProcessors()), true);
+            cache.setAdmission(true); // url hashes of a crawl burst are mostly used only once and shall not flush the cache
+            md5Cache = cache;
         } catch (final OutOfMemoryError e) {
             md5Cache = new ConcurrentARC<String, byte[]>(1000, Math.max(2, Runtime.getRuntime().availableProcessors()));
         }
+        CacheRegistry.register("digest.md5", md5Cache, 150);
+        ARCSnapshot.register("digest.md5", md5Cache, ARCSnapshot.STRING, ARCSnapshot.BYTES, Long.MAX_VALUE); // md5 hashes never get outdated
+    }
+
+    /**
+     * replace the md5 cache with an off-heap cache. The off-heap cache stores keys and digests in
+     * direct memory and can hold millions of entries without increasing the garbage collection load.
+     * This also applies to MultiProtocolURL.getDigest which uses the md5 cache.
+     * @param capacity the maximum number of entries
+     * @param maxKeyLength the maximum length of a key in bytes; longer keys are not cached
+     */
+    public static void useOffHeapCache(final int capacity, final int maxKeyLength) {
+        final ARC<String, byte[]> cache = new OffHeapARC<String>(capacity, maxKeyLength, 16, OffHeapARC.STRING_ENCODER, OffHeapARC.STRING_DECODER);
+        md5Cache = cache;
+        CacheRegistry.register("digest.md5", cache, 0);
+        ARCSnapshot.register("digest.md5", cache, ARCSnapshot.STRING, ARCSnapshot.BYTES, Long.MAX_VALUE);
     }
 
     /**
@@ -116,6 +137,30 @@ public class Digest {
         byte[] h = md5Cache.get(key);
         if (h != null) return h;
 
+        final long start = System.nanoTime();
+        final byte[] result = computeMD5Raw(key);
+
+        // update the cache
+        md5Cache.getStats().load(System.nanoTime() - start);
+        md5Cache.insertIfAbsent(key, result); // prevent expensive MD5 computation and encoding
+        return result;
+    }
+
+    /**
+     * compute the md5 hashes of many keys at once, i.e. for a batch of urls.
+     * The cache is accessed only once for every cache partition.
+     * @param keys
+     * @return a map from the keys to their md5 hashes
+     */
+    public static Map<String, byte[]> encodeMD5Raw(final Collection<String> keys) {
+        return md5Cache.computeIfAbsentAll(keys, missing -> {
+            final Map<String, byte[]> computed = new HashMap<>();
+            for (final String key: missing) computed.put(key, computeMD5Raw(key));
+            return computed;
+        });
+    }
+
+    private static byte[] computeMD5Raw(final String key) {
     	MessageDigest digest = digestPool.poll();
     	if (digest == null) {
     	    // if there are no digest objects left, create some on the fly
@@ -135,9 +180,6 @@ public class Digest {
         digest.reset(); // to be prepared for next
         digestPool.add(digest);
         //System.out.println("Digest Pool size = " + digestPool.size());
-
-        // update the cache
-        md5Cache.insertIfAbsent(key, result); // prevent expensive MD5 computation and encoding
         return result;
     }
 
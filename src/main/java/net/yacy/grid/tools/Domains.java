@@ -68,14 +68,15 @@ public class Domains {
     private static final int MAX_NAME_CACHE_HIT_SIZE = 10000;
     private static final int MAX_NAME_CACHE_MISS_SIZE = 1000;
     private static final int CONCURRENCY_LEVEL = Runtime.getRuntime().availableProcessors() * 2;
+    private static final long NAME_CACHE_HIT_TTL = 10L * 60L * 1000L; // positive lifetime: resolved host names are valid for 10 minutes
+    private static final long NAME_CACHE_MISS_TTL = 2L * 60L * 1000L; // negative lifetime: failed host names are tried again after 2 minutes
+    private static final double NAME_CACHE_REFRESH_AHEAD = 0.8d; // hosts which are used in the last 20% of their lifetime are resolved again in the background
 
     // a dns cache
-    private static final ARC<String, InetAddress> NAME_CACHE_HIT = new ConcurrentARC<>(MAX_NAME_CACHE_HIT_SIZE, CONCURRENCY_LEVEL);
-    private static final ARC<String, String> NAME_CACHE_MISS = new ConcurrentARC<>(MAX_NAME_CACHE_MISS_SIZE, CONCURRENCY_LEVEL);
+    private static final ExpiringARC<String, InetAddress> NAME_CACHE_HIT = new ExpiringARC<>(MAX_NAME_CACHE_HIT_SIZE, CONCURRENCY_LEVEL, true, NAME_CACHE_HIT_TTL);
+    private static final ExpiringARC<String, String> NAME_CACHE_MISS = new ExpiringARC<>(MAX_NAME_CACHE_MISS_SIZE, CONCURRENCY_LEVEL, false, NAME_CACHE_MISS_TTL);
     private static final ConcurrentHashMap<String, Object> LOOKUP_SYNC = new ConcurrentHashMap<>(100, 0.75f, Runtime.getRuntime().availableProcessors() * 2);
     private static       List<Pattern> nameCacheNoCachingPatterns = Collections.synchronizedList(new LinkedList<Pattern>());
-    public static long cacheHit_Hit = 0, cacheHit_Miss = 0, cacheHit_Insert = 0; // for statistics only; do not write
-    public static long cacheMiss_Hit = 0, cacheMiss_Miss = 0, cacheMiss_Insert = 0; // for statistics only; do not write
 
     private static Set<InetAddress> myHostAddresses = new HashSet<InetAddress>();
     private static Set<InetAddress> localHostAddresses = new HashSet<InetAddress>(); // subset of myHostAddresses
@@ -83,6 +84,14 @@ public class Domains {
     private static Set<InetAddress> publicIPv6HostAddresses = new HashSet<InetAddress>(); // subset of myHostAddresses
     private static Set<String> localHostNames = new HashSet<String>(); // subset of myHostNames
     static {
+        NAME_CACHE_HIT.setRefreshAhead(NAME_CACHE_REFRESH_AHEAD, host -> {
+            final InetAddress ip = InetAddress.getByName(host);
+            return ip == null || ip.isLoopbackAddress() ? null : ip;
+        }, 4);
+        NAME_CACHE_HIT.setAdmission(true); // hosts which appear only once in a crawl shall not evict the frequently used hosts
+        CacheRegistry.register("dns.hit", NAME_CACHE_HIT, 200);
+        ARCSnapshot.register("dns.hit", NAME_CACHE_HIT, ARCSnapshot.STRING, ARCSnapshot.INET_ADDRESS, NAME_CACHE_HIT_TTL);
+        CacheRegistry.register("dns.miss", NAME_CACHE_MISS, 120);
         localHostNames.add(LOCALHOST);
         try {
             InetAddress localHostAddress = InetAddress.getLocalHost();
@@ -344,6 +353,40 @@ public class Domains {
         noLocalCheck = v;
     }
 
+    /**
+     * set the lifetime of entries in the name caches
+     * @param positiveTTL the time in milliseconds how long a resolved host name is cached
+     * @param negativeTTL the time in milliseconds how long a host name which cannot be resolved is cached
+     */
+    public static void setNameCacheTTL(final long positiveTTL, final long negativeTTL) {
+        NAME_CACHE_HIT.setTTL(positiveTTL);
+        NAME_CACHE_MISS.setTTL(negativeTTL);
+    }
+
+    /**
+     * replace the clock of the name caches; this is used to test expiration without waiting
+     * @param clock the clock or null to use the system clock
+     */
+    public static void setNameCacheClock(final ExpiringARC.Clock clock) {
+        NAME_CACHE_HIT.setClock(clock);
+        NAME_CACHE_MISS.setClock(clock);
+    }
+
+    // the former public counters of the name caches; the numbers are now taken from the cache statistics
+
+    /** @deprecated use the statistics of the cache dns.hit in the CacheRegistry */
+    @Deprecated public static long cacheHit_Hit() {return NAME_CACHE_HIT.getStats().hits();}
+    /** @deprecated use the statistics of the cache dns.hit in the CacheRegistry */
+    @Deprecated public static long cacheHit_Miss() {return NAME_CACHE_HIT.getStats().misses();}
+    /** @deprecated use the statistics of the cache dns.hit in the CacheRegistry */
+    @Deprecated public static long cacheHit_Insert() {return NAME_CACHE_HIT.getStats().inserts();}
+    /** @deprecated use the statistics of the cache dns.miss in the CacheRegistry */
+    @Deprecated public static long cacheMiss_Hit() {return NAME_CACHE_MISS.getStats().hits();}
+    /** @deprecated use the statistics of the cache dns.miss in the CacheRegistry */
+    @Deprecated public static long cacheMiss_Miss() {return NAME_CACHE_MISS.getStats().misses();}
+    /** @deprecated use the statistics of the cache dns.miss in the CacheRegistry */
+    @Deprecated public static long cacheMiss_Insert() {return NAME_CACHE_MISS.getStats().inserts();}
+
     public static synchronized void close() {
         if (globalHosts != null) try {globalHosts.close();} catch (final IOException e) {}
     }
@@ -361,16 +404,14 @@ public class Domains {
         // trying to resolve host by doing a name cache lookup
         InetAddress ip = NAME_CACHE_HIT.get(host);
         if (ip != null) {
-            cacheHit_Hit++;
             return ip;
         }
-        cacheHit_Miss++;
 
         if (NAME_CACHE_MISS.containsKey(host)) {
-            cacheMiss_Hit++;
+            NAME_CACHE_MISS.getStats().hit();
             return null;
         }
-        cacheMiss_Miss++;
+        NAME_CACHE_MISS.getStats().miss();
         throw new UnknownHostException("host not in cache");
     }
 
@@ -399,7 +440,6 @@ public class Domains {
         if (!hosts.isEmpty()) return hosts.iterator().next();
         final String host = i.getHostName();
         NAME_CACHE_HIT.insertIfAbsent(host, i);
-        cacheHit_Insert++;
         return host;
     }
 
@@ -411,7 +451,6 @@ public class Domains {
      */
     public static void setHostName(final InetAddress i, final String host) {
         NAME_CACHE_HIT.insertIfAbsent(host, i);
-        cacheHit_Insert++;
     }
 
     /**
@@ -508,16 +547,14 @@ public class Domains {
         InetAddress ip = NAME_CACHE_HIT.get(host);
         if (ip != null) {
             //System.out.println("DNSLOOKUP-CACHE-HIT(CONC) " + host);
-            cacheHit_Hit++;
             return ip;
         }
-        cacheHit_Miss++;
         if (NAME_CACHE_MISS.containsKey(host)) {
             //System.out.println("DNSLOOKUP-CACHE-MISS(CONC) " + host);
-            cacheMiss_Hit++;
+            NAME_CACHE_MISS.getStats().hit();
             return null;
         }
-        cacheMiss_Miss++;
+        NAME_CACHE_MISS.getStats().miss();
 
         // call dnsResolveNetBased(host) using concurrency to interrupt execution in case of a time-out
         final Object sync_obj_new = new Object();
@@ -530,17 +567,15 @@ public class Domains {
             if (ip != null) {
                 //System.out.println("DNSLOOKUP-CACHE-HIT(SYNC) " + host);
                 LOOKUP_SYNC.remove(host);
-                cacheHit_Hit++;
                 return ip;
             }
-            cacheHit_Miss++;
             if (NAME_CACHE_MISS.containsKey(host)) {
                 //System.out.println("DNSLOOKUP-CACHE-MISS(SYNC) " + host);
+                NAME_CACHE_MISS.getStats().hit();
                 LOOKUP_SYNC.remove(host);
-                cacheMiss_Hit++;
                 return null;
             }
-            cacheMiss_Miss++;
+            NAME_CACHE_MISS.getStats().miss();
 
             // do the dns lookup on the dns server
             //if (!matchesList(host, nameCacheNoCachingPatterns)) System.out.println("DNSLOOKUP " + host);
@@ -557,7 +592,9 @@ public class Domains {
                 }
                 Thread.currentThread().setName(oldName);
                 if (ip == null) try {
+                    final long start = System.nanoTime();
                     ip = InetAddress.getByName(host);
+                    NAME_CACHE_HIT.getStats().load(System.nanoTime() - start);
                     //ip = TimeoutRequest.getByName(host, 1000); // this makes the DNS request to backbone
                 } catch (final UncheckedTimeoutException e) {
                     // in case of a timeout - maybe cause of massive requests - do not fill NAME_CACHE_MISS
@@ -568,7 +605,6 @@ public class Domains {
             } catch (final Throwable e) {
                 // add new entries
                 NAME_CACHE_MISS.insertIfAbsent(host, PRESENT);
-                cacheMiss_Insert++;
                 LOOKUP_SYNC.remove(host);
                 return null;
             }
@@ -576,7 +612,6 @@ public class Domains {
             if (ip == null) {
                 // add new entries
                 NAME_CACHE_MISS.insertIfAbsent(host, PRESENT);
-                cacheMiss_Insert++;
                 LOOKUP_SYNC.remove(host);
                 return null;
             }
@@ -584,7 +619,6 @@ public class Domains {
             if (!ip.isLoopbackAddress() && !matchesList(host, nameCacheNoCachingPatterns)) {
                 // add new ip cache entries
                 NAME_CACHE_HIT.insertIfAbsent(host, ip);
-                cacheHit_Insert++;
 
                 // add also the isLocal host name caches
                 final boolean localp = ip.isAnyLocalAddress() || ip.isLinkLocalAddress() || ip.isSiteLocalAddress();
@@ -599,6 +633,27 @@ public class Domains {
         }
     }
 
+    /**
+     * resolve many hosts at once. The name cache is asked for all hosts in one batch;
+     * only the hosts which are not in the cache are resolved one by one with dnsResolve.
+     * @param hosts
+     * @return a map from the host names (in lower case) to their addresses; hosts which cannot be resolved are omitted
+     */
+    public static Map<String, InetAddress> dnsResolve(final Collection<String> hosts) {
+        final LinkedHashSet<String> normalized = new LinkedHashSet<>();
+        for (final String host: hosts) {
+            if (host == null || host.isEmpty() || host.endsWith(".yacyh")) continue;
+            normalized.add(host.toLowerCase().trim());
+        }
+        final Map<String, InetAddress> result = NAME_CACHE_HIT.getAll(normalized);
+        for (final String host: normalized) {
+            if (result.containsKey(host)) continue;
+            final InetAddress ip = dnsResolve(host);
+            if (ip != null) result.put(host, ip);
+        }
+        return result;
+    }
+
     public static void clear() {
         try {
             globalHosts.clear();
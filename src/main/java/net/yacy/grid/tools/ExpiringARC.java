@@ -0,0 +1,472 @@
+/**
+ *  ExpiringARC
+ *  an Adaptive Replacement Cache where entries have a limited lifetime
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.yacy.grid.http.Log;
+
+/**
+ * A concurrent ARC where every entry expires after a time-to-live.
+ * Expired entries are not returned any more and are removed when they are accessed.
+ * The time is taken from a Clock which can be replaced to test the cache without waiting.
+ * Optionally, entries which are accessed within the last part of their lifetime are loaded
+ * again in the background with a Loader (refresh-ahead), so that frequently used entries
+ * never expire and many concurrent requests do not run into the same miss at once.
+ */
+public final class ExpiringARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, Iterable<Map.Entry<K, V>>, ARC<K, V> {
+
+    /**
+     * a Clock provides the current time in milliseconds
+     */
+    @FunctionalInterface
+    public interface Clock {
+        public long currentTimeMillis();
+    }
+
+    public final static Clock SYSTEM_CLOCK = System::currentTimeMillis;
+
+    /**
+     * a Loader computes a fresh value for a key which is refreshed ahead of its expiration
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        /**
+         * load a value
+         * @param key
+         * @return the value or null if no value can be computed; then the old value stays until it expires
+         * @throws Exception
+         */
+        public V load(K key) throws Exception;
+    }
+
+    private final static class Expiring<V> {
+        private final V value;
+        private final long created, expires;
+        public Expiring(final V value, final long created, final long expires) {
+            this.value = value;
+            this.created = created;
+            this.expires = expires;
+        }
+    }
+
+    private final ConcurrentARC<K, Expiring<V>> arc;
+    private volatile long ttl;
+    private volatile Clock clock;
+    private volatile double refreshAhead;
+    private volatile Loader<K, V> loader;
+    private ThreadPoolExecutor refresher;
+    private final Set<K> refreshing;
+    private final CacheStats stats;
+
+    /**
+     * create an expiring ARC
+     * @param cacheSize the number of maximum entries
+     * @param partitions the number of partitions
+     * @param adaptive if true, the partitions are AdaptiveARC instances, otherwise HashARC
+     * @param ttl the time-to-live of each entry in milliseconds
+     */
+    public ExpiringARC(final int cacheSize, final int partitions, final boolean adaptive, final long ttl) {
+        this.arc = new ConcurrentARC<K, Expiring<V>>(cacheSize, partitions, adaptive);
+        this.ttl = ttl;
+        this.clock = SYSTEM_CLOCK;
+        this.refreshAhead = 0.0d;
+        this.loader = null;
+        this.refresher = null;
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.stats = new CacheStats(this.arc.getStats());
+    }
+
+    /**
+     * set the time-to-live for entries which are inserted from now on
+     * @param ttl the time-to-live in milliseconds
+     */
+    public void setTTL(final long ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getTTL() {
+        return this.ttl;
+    }
+
+    /**
+     * replace the clock; this is used to test the expiration offline
+     * @param clock
+     */
+    public void setClock(final Clock clock) {
+        this.clock = clock == null ? SYSTEM_CLOCK : clock;
+    }
+
+    /**
+     * switch on the refresh-ahead of entries. An entry which is accessed after the given fraction
+     * of its lifetime has passed is loaded again in the background using the loader.
+     * @param fraction a number between 0 and 1, i.e. 0.8 to refresh within the last 20% of the lifetime
+     * @param loader the loader to compute a fresh value
+     * @param threads the maximum number of concurrent background loads
+     */
+    public synchronized void setRefreshAhead(final double fraction, final Loader<K, V> loader, final int threads) {
+        if (this.refresher == null) {
+            this.refresher = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(1000), r -> {
+                final Thread t = new Thread(r, "ExpiringARC: refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            this.refresher.allowCoreThreadTimeOut(true);
+        }
+        this.refreshAhead = fraction;
+        this.loader = loader;
+    }
+
+    /**
+     * switch the TinyLFU admission filter on or off; this requires adaptive partitions
+     * @param admission true to admit new keys to a full cache only if they are more popular than the victim
+     */
+    public void setAdmission(final boolean admission) {
+        this.arc.setAdmission(admission);
+    }
+
+    private Expiring<V> expiring(final V v) {
+        final long now = this.clock.currentTimeMillis();
+        return new Expiring<V>(v, now, now + this.ttl);
+    }
+
+    /**
+     * get an entry which is not expired; an expired entry is removed
+     * @param s
+     * @return the entry or null
+     */
+    @SuppressWarnings("unchecked")
+    private Expiring<V> alive(final Object s) {
+        final Expiring<V> e = this.arc.get(s);
+        if (e == null) return null;
+        if (this.clock.currentTimeMillis() < e.expires) return e;
+        // remove only the expired entry, not a fresh one which was put meanwhile
+        this.arc.removeValue((K) s, e);
+        this.stats.hitToEviction(); // the ARC counted a hit, but for us it is a miss
+        return null;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final void insert(final K s, final V v) {
+        this.arc.insert(s, expiring(v));
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before or the entry was expired
+     * do not return a previous content value
+     * @param s
+     * @param v
+     */
+    @Override
+    public void insertIfAbsent(final K s, final V v) {
+        final Expiring<V> e = expiring(v);
+        final Expiring<V> o = this.arc.putIfAbsent(s, e);
+        if (o != null && e.created >= o.expires) this.arc.put(s, e);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before or the entry was expired
+     * return a previous content value
+     * @param s
+     * @param v
+     * @return the value before inserting the new value
+     */
+    @Override
+    public V putIfAbsent(final K s, final V v) {
+        final Expiring<V> e = expiring(v);
+        final Expiring<V> o = this.arc.putIfAbsent(s, e);
+        if (o == null) return null;
+        if (e.created < o.expires) return o.value;
+        this.arc.put(s, e);
+        return null;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final V put(final K s, final V v) {
+        final Expiring<V> o = this.arc.put(s, expiring(v));
+        return o == null || this.clock.currentTimeMillis() >= o.expires ? null : o.value;
+    }
+
+    /**
+     * get a value from the cache. If the value is within its refresh period, a background
+     * refresh is started.
+     * @param s
+     * @return the value or null if there is no value or the value is expired
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final V get(final Object s) {
+        final Expiring<V> e = alive(s);
+        if (e == null) return null;
+        final Loader<K, V> l = this.loader;
+        if (l != null && this.refreshAhead > 0.0d) {
+            final long refreshTime = e.created + (long) ((e.expires - e.created) * this.refreshAhead);
+            if (this.clock.currentTimeMillis() >= refreshTime) refresh((K) s, l);
+        }
+        return e.value;
+    }
+
+    /**
+     * get many values from the cache; expired values are removed and not returned.
+     * Values within their refresh period are refreshed in the background.
+     * @param keys
+     * @return a map with all keys which have a valid entry and their values
+     */
+    @Override
+    public Map<K, V> getAll(final Collection<? extends K> keys) {
+        final Map<K, V> result = new HashMap<K, V>();
+        final long now = this.clock.currentTimeMillis();
+        final Loader<K, V> l = this.loader;
+        for (final Map.Entry<K, Expiring<V>> entry: this.arc.getAll(keys).entrySet()) {
+            final Expiring<V> e = entry.getValue();
+            if (now >= e.expires) {
+                this.arc.removeValue(entry.getKey(), e);
+                this.stats.hitToEviction();
+                continue;
+            }
+            if (l != null && this.refreshAhead > 0.0d && now >= e.created + (long) ((e.expires - e.created) * this.refreshAhead)) refresh(entry.getKey(), l);
+            result.put(entry.getKey(), e.value);
+        }
+        return result;
+    }
+
+    /**
+     * put many values to the cache; they all get the same expiration time
+     * @param map
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final Map<K, Expiring<V>> m = new HashMap<K, Expiring<V>>();
+        for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) m.put(entry.getKey(), expiring(entry.getValue()));
+        this.arc.putAll(m);
+    }
+
+    private void refresh(final K key, final Loader<K, V> l) {
+        if (!this.refreshing.add(key)) return; // a refresh is already running
+        try {
+            this.refresher.execute(() -> {
+                try {
+                    final long start = System.nanoTime();
+                    final V v = l.load(key);
+                    this.stats.load(System.nanoTime() - start);
+                    if (v != null) this.arc.put(key, expiring(v));
+                } catch (final Throwable e) {
+                    // keep the old value until it expires
+                } finally {
+                    this.refreshing.remove(key);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            this.refreshing.remove(key);
+            Log.logger.debug("refresh queue full, not refreshing " + key);
+        }
+    }
+
+    @Override
+    public boolean frequent(final K key) {
+        return this.arc.frequent(key);
+    }
+
+    /**
+     * put an entry from a snapshot to the cache; it gets a full time-to-live
+     * @param key
+     * @param value
+     * @param frequent true if the entry was in the frequency tier
+     */
+    @Override
+    public void restore(final K key, final V value, final boolean frequent) {
+        this.arc.restore(key, expiring(value), frequent);
+    }
+
+    /**
+     * check if the map contains the value
+     * @param value
+     * @return the keys that have the given value and which are not expired
+     */
+    @Override
+    public Collection<K> getKeys(final V value) {
+        final ArrayList<K> keys = new ArrayList<K>();
+        final long now = this.clock.currentTimeMillis();
+        for (final Map.Entry<K, Expiring<V>> entry: this.arc.entrySet()) {
+            final Expiring<V> e = entry.getValue();
+            if (now < e.expires && value.equals(e.value)) keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * check if the map contains the key and if the entry is not expired. This is not counted as hit or miss
+     * and does not change the replacement order; an expired entry is removed.
+     * @param s
+     * @return true if there is a valid entry for the key
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final boolean containsKey(final Object s) {
+        final Expiring<V> e = this.arc.peek((K) s);
+        if (e == null) return false;
+        if (this.clock.currentTimeMillis() < e.expires) return true;
+        if (this.arc.removeValue((K) s, e)) this.stats.evict();
+        return false;
+    }
+
+    /**
+     * get a value which is not expired without counting a hit or a miss and without a change of the replacement order
+     * @param s
+     * @return the value or null
+     */
+    @Override
+    public final V peek(final K s) {
+        final Expiring<V> e = this.arc.peek(s);
+        return e == null || this.clock.currentTimeMillis() >= e.expires ? null : e.value;
+    }
+
+    @Override
+    public final boolean removeValue(final K s, final V v) {
+        final Expiring<V> e = this.arc.peek(s);
+        if (e == null || !e.value.equals(v)) return false;
+        return this.arc.removeValue(s, e);
+    }
+
+    /**
+     * remove an entry from the cache
+     * @param s
+     * @return the old value
+     */
+    @Override
+    public final V remove(final Object s) {
+        final Expiring<V> o = this.arc.remove(s);
+        return o == null ? null : o.value;
+    }
+
+    /**
+     * remove all expired entries from the cache
+     * @return the number of removed entries
+     */
+    public int cleanup() {
+        int c = 0;
+        final long now = this.clock.currentTimeMillis();
+        for (final Map.Entry<K, Expiring<V>> entry: this.arc.entrySet()) {
+            if (now >= entry.getValue().expires && this.arc.removeValue(entry.getKey(), entry.getValue())) c++;
+        }
+        return c;
+    }
+
+    /**
+     * remove all expired entries and then a share of the remaining entries
+     * @param fraction the share of entries to remove
+     * @return the number of removed entries
+     */
+    @Override
+    public int shrink(final double fraction) {
+        final int c = cleanup();
+        this.stats.evict(c);
+        return c + this.arc.shrink(fraction);
+    }
+
+    /**
+     * clear the cache
+     */
+    @Override
+    public final void clear() {
+        this.arc.clear();
+    }
+
+    /**
+     * get the size of the ARC. This may include expired entries which had not been removed yet.
+     * @return the complete number of entries in the ARC cache
+     */
+    @Override
+    public final int size() {
+        return this.arc.size();
+    }
+
+    /**
+     * iterator implements the Iterable interface
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Return a Set view of the mappings contained in this map which are not expired.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        final Set<Map.Entry<K, V>> m = new HashSet<Map.Entry<K, V>>();
+        final long now = this.clock.currentTimeMillis();
+        for (final Map.Entry<K, Expiring<V>> entry: this.arc.entrySet()) {
+            final Expiring<V> e = entry.getValue();
+            if (now < e.expires) m.add(new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), e.value));
+        }
+        return m;
+    }
+
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters; expired entries count as evictions
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * a hash code for this ARC
+     * @return a hash code
+     */
+    @Override
+    public int hashCode() {
+        return this.arc.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o;
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ *  FrequencySketch
+ *  a count-min sketch for the admission of cache entries (TinyLFU)
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A FrequencySketch estimates how often a key had been accessed recently. It is a count-min sketch
+ * with four hash functions and 4-bit counters, sixteen counters are packed into one long.
+ * After a number of recorded accesses (ten times the capacity) all counters are halved, so that
+ * the sketch forgets old popularity (aging).
+ * This is used as admission filter as described in "TinyLFU: A Highly Efficient Cache Admission Policy",
+ * see https://arxiv.org/abs/1512.00727: a new entry is only admitted to a full cache if it is
+ * estimated to be more popular than the entry which would be evicted for it.
+ * This class is not thread-safe; it must be used within the lock of the cache which owns it.
+ */
+public final class FrequencySketch<K> {
+
+    private final static long[] SEED = new long[]{0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private final static long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask, sampleSize;
+    private int additions;
+
+    /**
+     * create a sketch
+     * @param capacity the maximum number of entries of the cache which uses the sketch
+     */
+    public FrequencySketch(final int capacity) {
+        int size = 1;
+        while (size < Math.max(1, capacity)) size = size * 2;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, capacity);
+        this.additions = 0;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        h *= 0xac4c1b51;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    private int index(final int h, final int i) {
+        long x = (h + SEED[i]) * SEED[i];
+        x += x >>> 32;
+        return ((int) x) & this.tableMask;
+    }
+
+    private static int keyHash(final Object key) {
+        if (key instanceof byte[]) {
+            int h = 0;
+            for (final byte c: (byte[]) key) h = 31 * h + (c & 0xFF);
+            return spread(h);
+        }
+        return spread(key.hashCode());
+    }
+
+    /**
+     * record an access to a key
+     * @param key
+     */
+    public void increment(final K key) {
+        final int h = keyHash(key);
+        final int start = (h & 3) << 2; // each hash function uses a different group of four counters
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            final int j = index(h, i);
+            final int offset = (start + i) << 2;
+            final long mask = 0xfL << offset;
+            if ((this.table[j] & mask) != mask) {
+                this.table[j] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++this.additions >= this.sampleSize) reset();
+    }
+
+    /**
+     * get the estimated number of recent accesses to a key
+     * @param key
+     * @return a number between 0 and 15
+     */
+    public int frequency(final K key) {
+        final int h = keyHash(key);
+        final int start = (h & 3) << 2;
+        int f = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int j = index(h, i);
+            final int offset = (start + i) << 2;
+            f = Math.min(f, (int) ((this.table[j] >>> offset) & 0xfL));
+        }
+        return f;
+    }
+
+    /**
+     * decide if a candidate shall replace a victim in the cache
+     * @param candidate the key which shall be inserted
+     * @param victim the key which would be evicted for the candidate
+     * @return true if the candidate is estimated to be more popular than the victim
+     */
+    public boolean admit(final K candidate, final K victim) {
+        return frequency(candidate) > frequency(victim);
+    }
+
+    /**
+     * halve all counters
+     */
+    private void reset() {
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.additions = this.additions / 2;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.table.length; i++) this.table[i] = 0;
+        this.additions = 0;
+    }
+
+    private static ConcurrentARC<String, String> adaptive(final int cacheSize, final boolean admission) {
+        final ConcurrentARC<String, String> arc = new ConcurrentARC<String, String>(cacheSize, 1, true);
+        if (admission) arc.setAdmission(true);
+        return arc;
+    }
+
+    /**
+     * a trace-driven simulator which compares the hit ratio of a HashARC, an AdaptiveARC and an AdaptiveARC
+     * with TinyLFU admission. The trace is either read from a file with one key per line or a synthetic
+     * trace of skewed accesses to a hot set mixed with one-hit keys is used.
+     * @param args [trace file] [cache size]
+     */
+    public static void main(final String[] args) {
+        String[] trace;
+        int cacheSize = 10000;
+        if (args.length > 0) {
+            try {
+                final List<String> lines = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+                trace = lines.toArray(new String[lines.size()]);
+            } catch (final IOException e) {
+                System.out.println("cannot read trace " + args[0] + ": " + e.getMessage());
+                return;
+            }
+            if (args.length > 1) cacheSize = Integer.parseInt(args[1]);
+            System.out.println("trace " + args[0] + ", length = " + trace.length + ", cacheSize = " + cacheSize);
+            System.out.println(String.format("HashARC = %.4f, AdaptiveARC = %.4f, AdaptiveARC+TinyLFU = %.4f",
+                    AdaptiveARC.hitRatio(new HashARC<String, String>(cacheSize), trace),
+                    AdaptiveARC.hitRatio(adaptive(cacheSize, false), trace),
+                    AdaptiveARC.hitRatio(adaptive(cacheSize, true), trace)));
+            return;
+        }
+        final Random r = new Random(0);
+        final int length = 2000000;
+        System.out.println("synthetic trace, length = " + length + ", cacheSize = " + cacheSize);
+        for (final int hotSize: new int[]{cacheSize, cacheSize * 4}) {
+            for (final double oneHit: new double[]{0.0d, 0.3d, 0.6d}) {
+                trace = new String[length];
+                long c = 0;
+                for (int i = 0; i < length; i++) {
+                    if (r.nextDouble() < oneHit) {
+                        trace[i] = "o" + (c++);
+                    } else {
+                        final double x = r.nextDouble();
+                        trace[i] = "h" + ((int) (hotSize * x * x * x));
+                    }
+                }
+                System.out.println(String.format("hot = %6d, one-hit = %.1f: HashARC = %.4f, AdaptiveARC = %.4f, AdaptiveARC+TinyLFU = %.4f",
+                        hotSize, oneHit,
+                        AdaptiveARC.hitRatio(new HashARC<String, String>(cacheSize), trace),
+                        AdaptiveARC.hitRatio(adaptive(cacheSize, false), trace),
+                        AdaptiveARC.hitRatio(adaptive(cacheSize, true), trace)));
+            }
+        }
+    }
+}
@@ -36,13 +36,17 @@ public final class HashARC<K, V> extends SimpleARC<K, V> implements Map<K, V>, I
         super.levelA = Collections.synchronizedMap(new LinkedHashMap<K, V>(1, 0.1f, accessOrder) {
             private static final long serialVersionUID = 1L;
             @Override protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
-                return size() > HashARC.this.cacheSize;
+                if (size() <= HashARC.this.cacheSize) return false;
+                HashARC.this.stats.evict();
+                return true;
             }
         });
         this.levelB = Collections.synchronizedMap(new LinkedHashMap<K, V>(1, 0.1f, accessOrder) {
             private static final long serialVersionUID = 1L;
             @Override protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
-                return size() > HashARC.this.cacheSize;
+                if (size() <= HashARC.this.cacheSize) return false;
+                HashARC.this.stats.evict();
+                return true;
             }
         });
     }
@@ -29,7 +29,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
@@ -74,7 +73,8 @@ import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
+
+import net.yacy.grid.json.JsonByteParser;
 
 public class HttpClient {
     
@@ -605,20 +605,20 @@ public class HttpClient {
 
     public static JSONArray loadGetJSONArray(String source_url) throws IOException {
         byte[] b = loadGet(source_url);
-        return new JSONArray(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseArray(b);
     }
     public static JSONArray loadPostJSONArray(String source_url, Map<String, byte[]> params) throws IOException {
         byte[] b = loadPost(source_url, params);
-        return new JSONArray(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseArray(b);
     }
 
     public static JSONObject loadGetJSONObject(String source_url) throws IOException {
         byte[] b = loadGet(source_url);
-        return new JSONObject(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseObject(b);
     }
     public static JSONObject loadPostJSONObject(String source_url, Map<String, byte[]> params) throws IOException {
         byte[] b = loadPost(source_url, params);
-        return new JSONObject(new JSONTokener(new String(b, StandardCharsets.UTF_8)));
+        return JsonByteParser.parseObject(b);
     }
 
 }
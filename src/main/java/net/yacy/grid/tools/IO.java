@@ -7,8 +7,9 @@ import java.security.*;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.yacy.grid.http.Log;
 
@@ -16,6 +17,7 @@ public final class IO {
 
     private static Map<Path,String> map;
     private static boolean initialized = false;
+    private static final CacheStats stats = new CacheStats();
 
     public static String readFile(Path path) throws IOException {
         byte[] encoded = Files.readAllBytes(path);
@@ -26,18 +28,40 @@ public final class IO {
     {
         Path absPath = path.toAbsolutePath();
         if(!initialized) init();
-        if(map.containsKey(absPath)){
-            return map.get(absPath);
+        String cached = map.get(absPath);
+        if(cached != null){
+            stats.hit();
+            return cached;
         }
         else{
+            stats.miss();
+            long start = System.nanoTime();
             String result = readFile(absPath);
-            map.put(absPath, result);
+            stats.load(System.nanoTime() - start);
+            if (map.put(absPath, result) == null) stats.insert();
             return result;
         }
     }
 
-    private static void init(){
-        map = new HashMap<Path,String>();
+    private static synchronized void init(){
+        if (initialized) return;
+        map = new ConcurrentHashMap<Path,String>();
+        CacheRegistry.register("io.files", stats, map::size, () -> {
+            long m = 0;
+            for (String s: map.values()) m += 40 + 2 * s.length();
+            return m;
+        }, fraction -> {
+            int n = (int) Math.ceil(map.size() * fraction);
+            int c = 0;
+            Iterator<Path> i = map.keySet().iterator();
+            while (c < n && i.hasNext()) {
+                i.next();
+                i.remove();
+                c++;
+            }
+            stats.evict(c);
+            return c;
+        });
         initialized = true;
     }
 
@@ -0,0 +1,270 @@
+/**
+ *  LineIndex
+ *  a persistent index of the line positions in a text file
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import net.yacy.grid.http.Log;
+
+/**
+ * A LineIndex is a sidecar file of a line-based data file (like a JsonRepository dump) which holds the offset
+ * and the length of every non-empty line, in the order of the lines. With the index, the n-th record of the
+ * data file can be found after a restart without a scan of the data file.
+ * The index file has a header of HEADER_SIZE bytes (magic and version) followed by one entry of ENTRY_SIZE bytes
+ * for each line: the offset of the line as long and the length of the line without the line break as int.
+ * The entries are read from memory-mapped segments of the index file; new entries are appended with add().
+ * When the index is opened, it is validated against the data file: a partly written last entry is removed,
+ * entries which point beyond the data file or not to the start of a line are dropped, and lines of the data file
+ * which were appended after the last entry (i.e. before a crash) are indexed by a scan of the data file tail only.
+ * If the index is not valid at all, it is rebuilt with a scan of the whole data file.
+ */
+public class LineIndex implements Closeable {
+
+    public final static int HEADER_SIZE = 16;
+    public final static int ENTRY_SIZE = 12;
+    private final static long MAGIC = 0x594a4c494e444558L; // "YJLINDEX"
+    private final static int VERSION = 1;
+    private final static int SEGMENT_ENTRIES = 1 << 26; // entries in one mapped segment: 768MB
+    private final static int SAMPLES = 64; // number of entries which are checked on open
+    private final static int REMAP_ENTRIES = 4096; // number of new entries which are read without a new mapping
+
+    private final File file, data;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private volatile long size;
+    private volatile MappedByteBuffer[] segments;
+    private final byte[] entry; // the write buffer for one entry
+
+    /**
+     * open or create the index of a data file
+     * @param file the index file
+     * @param data the data file
+     * @throws IOException
+     */
+    public LineIndex(final File file, final File data) throws IOException {
+        this.file = file;
+        this.data = data;
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = this.raf.getChannel();
+        this.segments = new MappedByteBuffer[0];
+        this.entry = new byte[ENTRY_SIZE];
+        if (!open()) {
+            Log.logger.info("rebuilding line index " + file);
+            this.raf.setLength(0);
+            this.raf.writeLong(MAGIC);
+            this.raf.writeInt(VERSION);
+            this.raf.writeInt(ENTRY_SIZE);
+            this.size = 0;
+        }
+        long start = this.size == 0 ? 0 : offset(this.size - 1) + length(this.size - 1) + 1;
+        long added = scan(start);
+        if (added > 0) Log.logger.info("added " + added + " lines from " + data + " to line index");
+    }
+
+    /**
+     * get the file name of the index of a data file: the name of the data file with a leading '.' and
+     * the extension ".idx", so that it is not listed together with the data files
+     * @param data the data file
+     * @return the index file
+     */
+    public static File indexFile(final File data) {
+        return new File(data.getParentFile(), "." + data.getName() + ".idx");
+    }
+
+    /**
+     * read and validate an existing index
+     * @return true if the index can be used, false if it must be rebuilt
+     */
+    private boolean open() throws IOException {
+        long length = this.raf.length();
+        if (length < HEADER_SIZE) return false;
+        this.raf.seek(0);
+        if (this.raf.readLong() != MAGIC || this.raf.readInt() != VERSION || this.raf.readInt() != ENTRY_SIZE) return false;
+
+        // remove a partly written entry
+        long n = (length - HEADER_SIZE) / ENTRY_SIZE;
+        if (HEADER_SIZE + n * ENTRY_SIZE != length) this.raf.setLength(HEADER_SIZE + n * ENTRY_SIZE);
+        this.size = n;
+        if (n == 0) return true;
+
+        try (RandomAccessFile d = new RandomAccessFile(this.data, "r")) {
+            long dataLength = d.length();
+            // sample entries over the whole index: each entry inside of the data file must point to a line
+            for (int s = 0; s < SAMPLES && s < n; s++) {
+                long i = n <= SAMPLES ? s : s * (n - 1) / (SAMPLES - 1);
+                if (offset(i) + length(i) < dataLength && !valid(d, dataLength, i)) return false; // the index does not belong to this data
+            }
+            // drop entries at the end which are not in the data file, i.e. if the data file was truncated
+            while (this.size > 0 && !valid(d, dataLength, this.size - 1)) this.size--;
+        }
+        if (this.size < n) {
+            this.raf.setLength(HEADER_SIZE + this.size * ENTRY_SIZE);
+            this.segments = new MappedByteBuffer[0];
+        }
+        return true;
+    }
+
+    private boolean valid(final RandomAccessFile d, final long dataLength, final long i) throws IOException {
+        long offset = offset(i);
+        int length = length(i);
+        if (offset < 0 || length <= 0 || offset + length >= dataLength) return false;
+        // the line must end with a line break and start after one
+        d.seek(offset + length);
+        if (d.read() != '\n') return false;
+        if (offset == 0) return true;
+        d.seek(offset - 1);
+        return d.read() == '\n';
+    }
+
+    /**
+     * index all lines of the data file which start at or after a position
+     * @param start the start position of a line
+     * @return the number of added lines
+     */
+    private long scan(final long start) throws IOException {
+        long added = 0;
+        try (RandomAccessFile d = new RandomAccessFile(this.data, "r")) {
+            long dataLength = d.length();
+            if (start >= dataLength) return 0;
+            d.seek(start);
+            byte[] b = new byte[1 << 20];
+            java.nio.ByteBuffer entries = java.nio.ByteBuffer.allocate(ENTRY_SIZE * 65536);
+            long lineStart = start;
+            long pos = start;
+            int n;
+            while ((n = d.read(b)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (b[i] == '\n') {
+                        long lineEnd = pos + i;
+                        if (lineEnd > lineStart) {
+                            entries.putLong(lineStart).putInt((int) (lineEnd - lineStart));
+                            if (!entries.hasRemaining()) added += write(entries);
+                        }
+                        lineStart = lineEnd + 1;
+                    }
+                }
+                pos += n;
+            }
+            added += write(entries);
+            // a last line without a line break is not complete and not indexed
+        }
+        return added;
+    }
+
+    private synchronized int write(final java.nio.ByteBuffer entries) throws IOException {
+        int count = entries.position() / ENTRY_SIZE;
+        this.raf.seek(HEADER_SIZE + this.size * ENTRY_SIZE);
+        this.raf.write(entries.array(), 0, entries.position());
+        entries.clear();
+        this.size += count;
+        return count;
+    }
+
+    /**
+     * append an entry
+     * @param offset the offset of the line in the data file
+     * @param length the length of the line without the line break
+     * @return the sequence number of the line
+     * @throws IOException
+     */
+    public synchronized long add(final long offset, final int length) throws IOException {
+        long i = this.size;
+        java.nio.ByteBuffer.wrap(this.entry).putLong(offset).putInt(length);
+        this.raf.seek(HEADER_SIZE + i * ENTRY_SIZE);
+        this.raf.write(this.entry);
+        this.size = i + 1;
+        return i;
+    }
+
+    /**
+     * @return the number of indexed lines
+     */
+    public long size() {
+        return this.size;
+    }
+
+    public long offset(final long i) throws IOException {
+        MappedByteBuffer segment = segment(i);
+        if (segment == null) return read(i).getLong(0);
+        return segment.getLong((int) (i % SEGMENT_ENTRIES) * ENTRY_SIZE);
+    }
+
+    public int length(final long i) throws IOException {
+        MappedByteBuffer segment = segment(i);
+        if (segment == null) return read(i).getInt(8);
+        return segment.getInt((int) (i % SEGMENT_ENTRIES) * ENTRY_SIZE + 8);
+    }
+
+    private synchronized java.nio.ByteBuffer read(final long i) throws IOException {
+        byte[] b = new byte[ENTRY_SIZE];
+        this.raf.seek(HEADER_SIZE + i * ENTRY_SIZE);
+        this.raf.readFully(b);
+        return java.nio.ByteBuffer.wrap(b);
+    }
+
+    /**
+     * get the mapped segment which contains an entry. Entries which were written after the segment was mapped
+     * are read from the file until there are REMAP_ENTRIES of them; then the segment is mapped again.
+     * A thread which is interrupted does not map, because this would close the channel.
+     * @return the segment or null if the entry must be read from the file
+     */
+    private MappedByteBuffer segment(final long i) throws IOException {
+        if (i < 0 || i >= this.size) throw new IndexOutOfBoundsException("line " + i + " of " + this.size);
+        int s = (int) (i / SEGMENT_ENTRIES);
+        int e = (int) (i % SEGMENT_ENTRIES);
+        MappedByteBuffer[] segments = this.segments;
+        MappedByteBuffer segment = s < segments.length ? segments[s] : null;
+        int mapped = segment == null ? 0 : segment.capacity() / ENTRY_SIZE;
+        if (e < mapped) return segment;
+        if (e - mapped < REMAP_ENTRIES && this.size - (long) s * SEGMENT_ENTRIES < SEGMENT_ENTRIES) return null;
+        if (Thread.currentThread().isInterrupted()) return null;
+        synchronized (this) {
+            segments = this.segments;
+            if (s >= segments.length) {
+                MappedByteBuffer[] g = new MappedByteBuffer[s + 1];
+                System.arraycopy(segments, 0, g, 0, segments.length);
+                segments = g;
+            }
+            long first = (long) s * SEGMENT_ENTRIES;
+            long entries = Math.min(SEGMENT_ENTRIES, this.size - first);
+            segments[s] = this.channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ENTRY_SIZE, entries * ENTRY_SIZE);
+            this.segments = segments;
+            return segments[s];
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.segments = new MappedByteBuffer[0];
+        this.channel.close();
+        this.raf.close();
+    }
+}
@@ -2384,6 +2384,12 @@ public class MultiProtocolURL implements Serializable, Comparable<MultiProtocolU
         return Domains.getLocale(this.host);
     }
 
+    /**
+     * compute the md5 of an url; this uses the md5 cache of the Digest class
+     * which can be switched to an off-heap cache with Digest.useOffHeapCache
+     * @param url
+     * @return the md5 as hex string
+     */
     public static String getDigest(String url) {
         return Digest.encodeMD5Hex(url);
     }
@@ -0,0 +1,500 @@
+/**
+ *  OffHeapARC
+ *  a cache for fixed-size byte[] values which is stored outside of the java heap
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A cache for byte[] values of a fixed length, like hashes and digests, where all keys and values
+ * are stored in direct ByteBuffer slabs outside of the java heap. Such a cache does not create
+ * any objects per entry and therefore causes no garbage collection load even with millions of entries.
+ *
+ * The table is organized as a set-associative hash table: each key hashes to a bucket of WAYS slots,
+ * a new entry takes a free slot in its bucket or replaces the least recently used slot of that bucket.
+ * Every slot has the layout
+ * [hash: int][stamp: int][key length + 1: short][key: maxKeyLength bytes][value: valueLength bytes]
+ * Keys are encoded to bytes with a key encoder; keys which are longer than maxKeyLength are not cached.
+ */
+public final class OffHeapARC<K> extends AbstractMap<K, byte[]> implements Map<K, byte[]>, Iterable<Map.Entry<K, byte[]>>, ARC<K, byte[]> {
+
+    private final static int WAYS = 8; // number of slots in one bucket
+    private final static int LOCKS = 256; // number of lock stripes, must be a power of 2
+    private final static int MAX_SLAB_SIZE = 1 << 30;
+
+    public final static Function<byte[], byte[]> BYTES = b -> b;
+    public final static Function<String, byte[]> STRING_ENCODER = s -> s.getBytes(StandardCharsets.UTF_8);
+    public final static Function<byte[], String> STRING_DECODER = b -> new String(b, StandardCharsets.UTF_8);
+
+    private final int maxKeyLength, valueLength, slotSize, bucketMask;
+    private final int slabShift, slabMask; // number of slots in one slab is 1 << slabShift
+    private final java.nio.ByteBuffer[] slabs;
+    private final Object[] locks;
+    private final Function<K, byte[]> encoder;
+    private final Function<byte[], K> decoder;
+    private final AtomicInteger size;
+    private final CacheStats stats;
+
+    /**
+     * create an off-heap cache
+     * @param capacity the maximum number of entries; this is rounded up to a power of 2
+     * @param maxKeyLength the maximum number of bytes of an encoded key
+     * @param valueLength the length of all values
+     * @param encoder a function to encode a key into a byte[]
+     * @param decoder a function to decode a key from a byte[]
+     * @throws IllegalArgumentException if a number is not positive or the key length does not fit into the short of a slot
+     */
+    public OffHeapARC(final int capacity, final int maxKeyLength, final int valueLength, final Function<K, byte[]> encoder, final Function<byte[], K> decoder) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (valueLength <= 0) throw new IllegalArgumentException("value length must be positive: " + valueLength);
+        // the key length is stored as a short with an offset of 1
+        if (maxKeyLength <= 0 || maxKeyLength > Short.MAX_VALUE - 1) throw new IllegalArgumentException("maximum key length must be between 1 and " + (Short.MAX_VALUE - 1) + ": " + maxKeyLength);
+        this.maxKeyLength = maxKeyLength;
+        this.valueLength = valueLength;
+        this.slotSize = 4 + 4 + 2 + maxKeyLength + valueLength;
+        int buckets = 1;
+        while (buckets * WAYS < capacity) buckets = buckets * 2;
+        this.bucketMask = buckets - 1;
+        final long slots = ((long) buckets) * WAYS;
+        int shift = 0;
+        while ((1L << (shift + 1)) <= slots && ((long) this.slotSize << (shift + 1)) <= MAX_SLAB_SIZE) shift++;
+        this.slabShift = shift;
+        this.slabMask = (1 << shift) - 1;
+        this.slabs = new java.nio.ByteBuffer[(int) (slots >>> shift)];
+        for (int i = 0; i < this.slabs.length; i++) this.slabs[i] = java.nio.ByteBuffer.allocateDirect(this.slotSize << shift);
+        this.locks = new Object[LOCKS];
+        for (int i = 0; i < LOCKS; i++) this.locks[i] = new Object();
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.size = new AtomicInteger(0);
+        this.stats = new CacheStats();
+    }
+
+    /**
+     * get the number of bytes which had been allocated outside of the heap
+     * @return the size of all slabs
+     */
+    public long offHeapBytes() {
+        return ((long) this.slabs.length) * this.slotSize << this.slabShift;
+    }
+
+    private static int hash(final byte[] b) {
+        int h = 0x9747b28c;
+        for (final byte c: b) {
+            h ^= c & 0xff;
+            h *= 0x5bd1e995;
+            h ^= h >>> 15;
+        }
+        h ^= h >>> 13;
+        h *= 0x5bd1e995;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    private java.nio.ByteBuffer slab(final int slot) {
+        return this.slabs[slot >>> this.slabShift];
+    }
+
+    private int offset(final int slot) {
+        return (slot & this.slabMask) * this.slotSize;
+    }
+
+    private Object lock(final int h) {
+        return this.locks[(h & this.bucketMask) & (LOCKS - 1)];
+    }
+
+    private int firstSlot(final int h) {
+        return (h & this.bucketMask) * WAYS;
+    }
+
+    /**
+     * find the slot of a key; this must be called within the lock of the bucket
+     * @return the slot number or -1
+     */
+    private int find(final int h, final byte[] key) {
+        final int first = firstSlot(h);
+        for (int slot = first; slot < first + WAYS; slot++) {
+            final java.nio.ByteBuffer b = slab(slot);
+            final int o = offset(slot);
+            if (b.getShort(o + 8) - 1 != key.length || b.getInt(o) != h) continue;
+            boolean equal = true;
+            for (int i = 0; i < key.length; i++) {
+                if (b.get(o + 10 + i) != key[i]) {equal = false; break;}
+            }
+            if (equal) return slot;
+        }
+        return -1;
+    }
+
+    private byte[] readValue(final int slot) {
+        final java.nio.ByteBuffer b = slab(slot);
+        final int o = offset(slot) + 10 + this.maxKeyLength;
+        final byte[] v = new byte[this.valueLength];
+        for (int i = 0; i < this.valueLength; i++) v[i] = b.get(o + i);
+        return v;
+    }
+
+    private void writeValue(final int slot, final byte[] value) {
+        final java.nio.ByteBuffer b = slab(slot);
+        final int o = offset(slot) + 10 + this.maxKeyLength;
+        for (int i = 0; i < this.valueLength; i++) b.put(o + i, value[i]);
+    }
+
+    private byte[] readKey(final int slot) {
+        final java.nio.ByteBuffer b = slab(slot);
+        final int o = offset(slot);
+        final int l = b.getShort(o + 8) - 1;
+        if (l < 0) return null;
+        final byte[] k = new byte[l];
+        for (int i = 0; i < l; i++) k[i] = b.get(o + 10 + i);
+        return k;
+    }
+
+    /**
+     * a coarse time stamp with a resolution of about 65 microseconds; this is not shared state
+     * like a counter would be and therefore does not cause contention between threads
+     */
+    private static int stamp() {
+        return (int) (System.nanoTime() >>> 16);
+    }
+
+    private void touch(final int slot) {
+        slab(slot).putInt(offset(slot) + 4, stamp());
+    }
+
+    /**
+     * store an entry; this must be called within the lock of the bucket
+     * @return the previous value or null
+     */
+    private byte[] store(final int h, final byte[] key, final byte[] value, final boolean ifAbsent) {
+        if (value.length != this.valueLength) throw new IllegalArgumentException("value length " + value.length + " does not match " + this.valueLength);
+        int slot = find(h, key);
+        if (slot >= 0) {
+            final byte[] r = readValue(slot);
+            if (ifAbsent) return r;
+            writeValue(slot, value);
+            touch(slot);
+            return r;
+        }
+        // find a free slot or the least recently used slot in the bucket
+        final int first = firstSlot(h);
+        int victim = first, victimAge = -1;
+        final int now = stamp();
+        for (slot = first; slot < first + WAYS; slot++) {
+            final java.nio.ByteBuffer b = slab(slot);
+            final int o = offset(slot);
+            if (b.getShort(o + 8) == 0) {victim = slot; victimAge = -1; break;}
+            final int age = now - b.getInt(o + 4); // this is overflow-safe
+            if (age > victimAge) {victim = slot; victimAge = age;}
+        }
+        final java.nio.ByteBuffer b = slab(victim);
+        final int o = offset(victim);
+        if (b.getShort(o + 8) == 0) this.size.incrementAndGet(); else this.stats.evict();
+        b.putInt(o, h);
+        b.putShort(o + 8, (short) (key.length + 1));
+        for (int i = 0; i < key.length; i++) b.put(o + 10 + i, key[i]);
+        writeValue(victim, value);
+        touch(victim);
+        this.stats.insert();
+        return null;
+    }
+
+    private byte[] encode(final Object s) {
+        @SuppressWarnings("unchecked")
+        final byte[] k = this.encoder.apply((K) s);
+        return k.length > this.maxKeyLength ? null : k;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final void insert(final K s, final byte[] v) {
+        put(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * do not return a previous content value
+     * @param s
+     * @param v
+     */
+    @Override
+    public final void insertIfAbsent(final K s, final byte[] v) {
+        putIfAbsent(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * return a previous content value
+     * @param s
+     * @param v
+     * @return the value before inserting the new value
+     */
+    @Override
+    public final byte[] putIfAbsent(final K s, final byte[] v) {
+        final byte[] k = encode(s);
+        if (k == null) return null;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            return store(h, k, v, true);
+        }
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final byte[] put(final K s, final byte[] v) {
+        final byte[] k = encode(s);
+        if (k == null) return null;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            return store(h, k, v, false);
+        }
+    }
+
+    /**
+     * get a value from the cache.
+     * @param s
+     * @return a copy of the value
+     */
+    @Override
+    public final byte[] get(final Object s) {
+        final byte[] k = encode(s);
+        if (k == null) {
+            this.stats.miss();
+            return null;
+        }
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            final int slot = find(h, k);
+            if (slot < 0) {
+                this.stats.miss();
+                return null;
+            }
+            touch(slot);
+            this.stats.hit();
+            return readValue(slot);
+        }
+    }
+
+    /**
+     * check if the map contains the value. This requires a scan of the whole table.
+     * @param value
+     * @return the keys that have the given value
+     */
+    @Override
+    public Collection<K> getKeys(final byte[] value) {
+        final ArrayList<K> keys = new ArrayList<K>();
+        for (final Map.Entry<K, byte[]> entry: entrySet()) {
+            if (Arrays.equals(value, entry.getValue())) keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * check if the map contains the key
+     * @param s
+     * @return true if the key is in the cache
+     */
+    @Override
+    public final boolean containsKey(final Object s) {
+        final byte[] k = encode(s);
+        if (k == null) return false;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            return find(h, k) >= 0;
+        }
+    }
+
+    @Override
+    public final byte[] peek(final K s) {
+        final byte[] k = encode(s);
+        if (k == null) return null;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            final int slot = find(h, k);
+            return slot < 0 ? null : readValue(slot);
+        }
+    }
+
+    /**
+     * remove an entry only if it has the given value; the values are compared by their content
+     * @param s
+     * @param v
+     * @return true if the entry was removed
+     */
+    @Override
+    public final boolean removeValue(final K s, final byte[] v) {
+        final byte[] k = encode(s);
+        if (k == null) return false;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            final int slot = find(h, k);
+            if (slot < 0 || !Arrays.equals(readValue(slot), v)) return false;
+            slab(slot).putShort(offset(slot) + 8, (short) 0);
+            this.size.decrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * remove an entry from the cache
+     * @param s
+     * @return the old value
+     */
+    @Override
+    public final byte[] remove(final Object s) {
+        final byte[] k = encode(s);
+        if (k == null) return null;
+        final int h = hash(k);
+        synchronized (lock(h)) {
+            final int slot = find(h, k);
+            if (slot < 0) return null;
+            final byte[] r = readValue(slot);
+            slab(slot).putShort(offset(slot) + 8, (short) 0);
+            this.size.decrementAndGet();
+            return r;
+        }
+    }
+
+    /**
+     * clear the cache
+     */
+    @Override
+    public final void clear() {
+        for (int bucket = 0; bucket <= this.bucketMask; bucket++) {
+            synchronized (this.locks[bucket & (LOCKS - 1)]) {
+                for (int slot = bucket * WAYS; slot < (bucket + 1) * WAYS; slot++) {
+                    final java.nio.ByteBuffer b = slab(slot);
+                    final int o = offset(slot);
+                    if (b.getShort(o + 8) != 0) {
+                        b.putShort(o + 8, (short) 0);
+                        this.size.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * get many values from the cache
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    @Override
+    public Map<K, byte[]> getAll(final Collection<? extends K> keys) {
+        final Map<K, byte[]> result = new HashMap<K, byte[]>();
+        for (final K key: keys) {
+            final byte[] v = get(key);
+            if (v != null) result.put(key, v);
+        }
+        return result;
+    }
+
+    /**
+     * the entries of this cache are stored outside of the java heap, so they are not removed
+     * when the heap is short
+     * @param fraction the share of entries to remove
+     * @return always 0
+     */
+    @Override
+    public final int shrink(final double fraction) {
+        return 0;
+    }
+
+    /**
+     * get the size of the cache.
+     * @return the number of entries
+     */
+    @Override
+    public final int size() {
+        return this.size.get();
+    }
+
+    /**
+     * iterator implements the Iterable interface
+     */
+    @Override
+    public final Iterator<Map.Entry<K, byte[]>> iterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Return a Set copy of the mappings contained in this map.
+     * This creates objects for all entries and shall only be used for small caches or for export.
+     *
+     * @return a set of the mappings contained in this map
+     */
+    @Override
+    public final Set<Map.Entry<K, byte[]>> entrySet() {
+        final Set<Map.Entry<K, byte[]>> m = new HashSet<Map.Entry<K, byte[]>>();
+        for (int bucket = 0; bucket <= this.bucketMask; bucket++) {
+            synchronized (this.locks[bucket & (LOCKS - 1)]) {
+                for (int slot = bucket * WAYS; slot < (bucket + 1) * WAYS; slot++) {
+                    final byte[] k = readKey(slot);
+                    if (k != null) m.add(new AbstractMap.SimpleImmutableEntry<K, byte[]>(this.decoder.apply(k), readValue(slot)));
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * a hash code for this ARC
+     * @return the identity hash code of the ARC
+     */
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        return this == o;
+    }
+
+}
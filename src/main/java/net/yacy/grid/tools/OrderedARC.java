@@ -0,0 +1,186 @@
+/**
+ *  OrderedARC
+ *  an Adaptive Replacement Cache for comparable objects with logarithmic eviction
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This is an ARC for keys which are not hashable but comparable, like byte[].
+ * It replaces the ComparableARC: the ComparableARC kept the insertion order of the keys in a separate
+ * list which had to be searched on every removal. Here every tree entry carries its own links
+ * to the previous and next entry in insertion order, so removal and eviction of the eldest entry
+ * cost only the tree operation, which is O(log n). Iteration over a level is in key order.
+ */
+public final class OrderedARC<K, V> extends SimpleARC<K, V> implements Map<K, V>, Iterable<Map.Entry<K, V>>, ARC<K, V> {
+
+    public OrderedARC(final int cacheSize, final Comparator<? super K> comparator) {
+        super.cacheSize = cacheSize / 2;
+        super.levelA = new LinkedTreeMap<K, V>(this.cacheSize, comparator, this.stats);
+        super.levelB = new LinkedTreeMap<K, V>(this.cacheSize, comparator, this.stats);
+    }
+
+    /**
+     * a sorted map with a size limit which evicts the eldest inserted entry
+     */
+    private static class LinkedTreeMap<K, V> extends AbstractMap<K, V> {
+
+        private final static class Node<K, V> {
+            private final K key;
+            private V value;
+            private Node<K, V> prev, next; // insertion order
+            public Node(final K key, final V value) {
+                this.key = key;
+                this.value = value;
+            }
+        }
+
+        private final int limit;
+        private final TreeMap<K, Node<K, V>> tree;
+        private final CacheStats stats;
+        private Node<K, V> head, tail; // head is the eldest entry
+
+        public LinkedTreeMap(final int limit, final Comparator<? super K> comparator, final CacheStats stats) {
+            this.limit = limit;
+            this.tree = new TreeMap<K, Node<K, V>>(comparator);
+            this.stats = stats;
+            this.head = null;
+            this.tail = null;
+        }
+
+        private void link(final Node<K, V> n) {
+            n.prev = this.tail;
+            n.next = null;
+            if (this.tail == null) this.head = n; else this.tail.next = n;
+            this.tail = n;
+        }
+
+        private void unlink(final Node<K, V> n) {
+            if (n.prev == null) this.head = n.next; else n.prev.next = n.next;
+            if (n.next == null) this.tail = n.prev; else n.next.prev = n.prev;
+            n.prev = null;
+            n.next = null;
+        }
+
+        @Override
+        public synchronized V get(final Object k) {
+            final Node<K, V> n = this.tree.get(k);
+            return n == null ? null : n.value;
+        }
+
+        @Override
+        public synchronized boolean containsKey(final Object k) {
+            return this.tree.containsKey(k);
+        }
+
+        @Override
+        public synchronized V put(final K k, final V v) {
+            final Node<K, V> n = this.tree.get(k);
+            if (n != null) {
+                final V r = n.value;
+                n.value = v;
+                return r;
+            }
+            final Node<K, V> m = new Node<K, V>(k, v);
+            this.tree.put(k, m);
+            link(m);
+            if (this.tree.size() > this.limit) {
+                final Node<K, V> w = this.head;
+                unlink(w);
+                final Node<K, V> t = this.tree.remove(w.key);
+                assert t == w : "tree.size() = " + this.tree.size() + ", limit = " + this.limit;
+                this.stats.evict();
+            }
+            return null;
+        }
+
+        @Override
+        public synchronized V remove(final Object k) {
+            final Node<K, V> n = this.tree.remove(k);
+            if (n == null) return null;
+            unlink(n);
+            return n.value;
+        }
+
+        public synchronized Map.Entry<K, V> pollFirstEntry() {
+            final Map.Entry<K, Node<K, V>> entry = this.tree.pollFirstEntry();
+            if (entry == null) return null;
+            unlink(entry.getValue());
+            return new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), entry.getValue().value);
+        }
+
+        public synchronized Map.Entry<K, V> pollLastEntry() {
+            final Map.Entry<K, Node<K, V>> entry = this.tree.pollLastEntry();
+            if (entry == null) return null;
+            unlink(entry.getValue());
+            return new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), entry.getValue().value);
+        }
+
+        @Override
+        public synchronized int size() {
+            return this.tree.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+            this.tree.clear();
+            this.head = null;
+            this.tail = null;
+        }
+
+        /**
+         * get a snapshot of the entries in key order
+         */
+        @Override
+        public synchronized Set<Map.Entry<K, V>> entrySet() {
+            final ArrayList<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(this.tree.size());
+            for (final Node<K, V> n: this.tree.values()) entries.add(new AbstractMap.SimpleImmutableEntry<K, V>(n.key, n.value));
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return entries.iterator();
+                }
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o;
+        }
+    }
+
+}
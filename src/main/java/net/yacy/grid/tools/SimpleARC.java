@@ -24,6 +24,7 @@ package net.yacy.grid.tools;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -45,6 +46,7 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
 
     protected int cacheSize;
     protected Map<K, V> levelA, levelB; // we can assume that these maps are synchronized
+    protected final CacheStats stats = new CacheStats();
 
     /**
      * put a value to the cache.
@@ -57,7 +59,7 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
             this.levelB.put(s, v);
             assert (this.levelB.size() <= this.cacheSize); // the cache should shrink automatically
         } else {
-            this.levelA.put(s, v);
+            if (this.levelA.put(s, v) == null) this.stats.insert();
             assert (this.levelA.size() <= this.cacheSize); // the cache should shrink automatically
         }
     }
@@ -83,6 +85,7 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
                     return;
                 } else {
                     this.levelA.put(s, v);
+                    this.stats.insert();
                     assert (this.levelA.size() <= this.cacheSize); // the cache should shrink automatically
                 }
             }
@@ -104,6 +107,7 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
             o = this.levelA.get(s);
             if (o != null) return o;
             this.levelA.put(s, v);
+            this.stats.insert();
             assert (this.levelA.size() <= this.cacheSize); // the cache should shrink automatically
             return null;
         }
@@ -122,6 +126,7 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
             return r;
         }
         final V r = this.levelA.put(s, v);
+        if (r == null) this.stats.insert();
         assert (this.levelA.size() <= this.cacheSize); // the cache should shrink automatically
         return r;
     }
@@ -135,15 +140,25 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
     @Override
     public final V get(final Object s) {
         V v = this.levelB.get(s);
-        if (v != null) return v;
+        if (v != null) {
+            this.stats.hit();
+            return v;
+        }
         synchronized (this) {
             // we must repeat the get here because another thread may have moved the
             // entry from A to B meanwhile
             v = this.levelB.get(s);
-            if (v != null) return v;
+            if (v != null) {
+                this.stats.hit();
+                return v;
+            }
             // now get and move the entry to B
             v = this.levelA.remove(s);
-            if (v == null) return null;
+            if (v == null) {
+                this.stats.miss();
+                return null;
+            }
+            this.stats.hit();
             // move value from A to B; since it was already removed from A, just put it to B
             //System.out.println("ARC: moving A->B, size(A) = " + this.levelA.size() + ", size(B) = " + this.levelB.size());
             this.levelB.put((K) s, v);
@@ -152,6 +167,52 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
         return v;
     }
 
+    /**
+     * get many values from the cache with one lock acquisition
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    @Override
+    public final synchronized Map<K, V> getAll(final Collection<? extends K> keys) {
+        final Map<K, V> result = new HashMap<K, V>();
+        for (final K key: keys) {
+            final V v = get(key);
+            if (v != null) result.put(key, v);
+        }
+        return result;
+    }
+
+    /**
+     * put many values to the cache with one lock acquisition
+     * @param map
+     */
+    @Override
+    public final synchronized void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * check if an entry is in level B
+     * @param key
+     * @return true if the entry had been accessed more than once
+     */
+    @Override
+    public final synchronized boolean frequent(final K key) {
+        return this.levelB.containsKey(key);
+    }
+
+    /**
+     * put an entry from a snapshot into the level where it had been; this is not counted as insert
+     * @param key
+     * @param value
+     * @param frequent true to put the entry into level B
+     */
+    @Override
+    public final synchronized void restore(final K key, final V value, final boolean frequent) {
+        if (this.levelB.containsKey(key) || this.levelA.containsKey(key)) return;
+        if (frequent) this.levelB.put(key, value); else this.levelA.put(key, value);
+    }
+
     /**
      * check if the map contains the value
      * @param value
@@ -185,6 +246,31 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
     }
 
 
+    @Override
+    public final V peek(final K s) {
+        final V v = this.levelB.get(s);
+        if (v != null) return v;
+        synchronized (this) {
+            // repeat the get in B because the entry may have been moved from A to B meanwhile
+            final V b = this.levelB.get(s);
+            return b == null ? this.levelA.get(s) : b;
+        }
+    }
+
+    @Override
+    public final synchronized boolean removeValue(final K s, final V v) {
+        V r = this.levelB.get(s);
+        if (r != null) {
+            if (!r.equals(v)) return false;
+            this.levelB.remove(s);
+            return true;
+        }
+        r = this.levelA.get(s);
+        if (r == null || !r.equals(v)) return false;
+        this.levelA.remove(s);
+        return true;
+    }
+
     /**
      * remove an entry from the cache
      * @param s
@@ -206,6 +292,33 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
         this.levelB.clear();
     }
 
+    /**
+     * remove a share of the entries, starting with the first entries of level A and then level B
+     * @param fraction the share of entries to remove
+     * @return the number of removed entries
+     */
+    @Override
+    public final synchronized int shrink(final double fraction) {
+        final int n = (int) Math.ceil((this.levelA.size() + this.levelB.size()) * fraction);
+        int c = removeFirst(this.levelA, n);
+        c += removeFirst(this.levelB, n - c);
+        this.stats.evict(c);
+        return c;
+    }
+
+    private static <K> int removeFirst(final Map<K, ?> map, final int n) {
+        if (n <= 0) return 0;
+        final ArrayList<K> keys = new ArrayList<K>(n);
+        synchronized (map) {
+            for (final K k: map.keySet()) {
+                if (keys.size() >= n) break;
+                keys.add(k);
+            }
+        }
+        for (final K k: keys) map.remove(k);
+        return keys.size();
+    }
+
     /**
      * get the size of the ARC. this returns the sum of main and ghost cache
      * @return the complete number of entries in the ARC cache
@@ -238,6 +351,15 @@ abstract class SimpleARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, I
         return m;
     }
 
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
     /**
      * a hash code for this ARC
      * @return the hash code of one of the ARC partial hash tables
@@ -0,0 +1,397 @@
+/**
+ *  WeightedARC
+ *  an Adaptive Replacement Cache which is bounded by the weight of its entries
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.grid.tools;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is a two-level cache like the SimpleARC, but the size of the cache is not bounded by the
+ * number of entries but by the sum of the weights of all entries. The weight is computed with a Weigher
+ * at the time when an entry is inserted, i.e. the number of bytes which an entry retains.
+ * New entries are placed into level A, entries which are accessed again move to level B.
+ * Level B may hold at most half of the maximum weight. If the maximum weight is exceeded,
+ * entries are evicted from the eldest end of level A first and then from level B.
+ * Entries which are heavier than the maximum weight are not stored at all.
+ */
+public final class WeightedARC<K, V> extends AbstractMap<K, V> implements Map<K, V>, Iterable<Map.Entry<K, V>>, ARC<K, V> {
+
+    /**
+     * a Weigher computes the weight of an entry, i.e. the number of bytes the entry retains
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        public long weigh(K key, V value);
+    }
+
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final LinkedHashMap<K, Weighted<V>> levelA, levelB;
+    private long weightA, weightB;
+    private final CacheStats stats = new CacheStats();
+
+    private final static class Weighted<V> {
+        private final V value;
+        private final long weight;
+        public Weighted(final V value, final long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * create a weighted ARC
+     * @param maxWeight the maximum sum of all weights
+     * @param weigher the function which computes the weight of each entry
+     */
+    public WeightedARC(final long maxWeight, final Weigher<? super K, ? super V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.levelA = new LinkedHashMap<K, Weighted<V>>();
+        this.levelB = new LinkedHashMap<K, Weighted<V>>();
+        this.weightA = 0;
+        this.weightB = 0;
+    }
+
+    /**
+     * get the maximum weight of this cache
+     * @return the sum of weights which shall not be exceeded
+     */
+    public long maxWeight() {
+        return this.maxWeight;
+    }
+
+    /**
+     * get the current weight of this cache
+     * @return the sum of the weights of all entries
+     */
+    public synchronized long weight() {
+        return this.weightA + this.weightB;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized void insert(final K s, final V v) {
+        store(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * do not return a previous content value
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized void insertIfAbsent(final K s, final V v) {
+        if (this.levelB.containsKey(s) || this.levelA.containsKey(s)) return;
+        store(s, v);
+    }
+
+    /**
+     * put a value to the cache if there was not an entry before
+     * return a previous content value
+     * @param s
+     * @param v
+     * @return the value before inserting the new value
+     */
+    @Override
+    public final synchronized V putIfAbsent(final K s, final V v) {
+        Weighted<V> o = this.levelB.get(s);
+        if (o != null) return o.value;
+        o = this.levelA.get(s);
+        if (o != null) return o.value;
+        store(s, v);
+        return null;
+    }
+
+    /**
+     * put a value to the cache.
+     * @param s
+     * @param v
+     */
+    @Override
+    public final synchronized V put(final K s, final V v) {
+        return store(s, v);
+    }
+
+    /**
+     * get a value from the cache. A hit in level A moves the entry to level B.
+     * @param s
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final synchronized V get(final Object s) {
+        Weighted<V> w = this.levelB.get(s);
+        if (w != null) {
+            this.stats.hit();
+            return w.value;
+        }
+        w = this.levelA.remove(s);
+        if (w == null) {
+            this.stats.miss();
+            return null;
+        }
+        this.stats.hit();
+        this.weightA -= w.weight;
+        this.levelB.put((K) s, w);
+        this.weightB += w.weight;
+        shrink();
+        return w.value;
+    }
+
+    private V store(final K s, final V v) {
+        final long weight = this.weigher.weigh(s, v);
+        Weighted<V> r = this.levelB.remove(s);
+        boolean inB = r != null;
+        if (inB) {
+            this.weightB -= r.weight;
+        } else {
+            r = this.levelA.remove(s);
+            if (r != null) this.weightA -= r.weight;
+        }
+        if (weight <= this.maxWeight) {
+            if (r == null) this.stats.insert();
+            if (inB) {
+                this.levelB.put(s, new Weighted<V>(v, weight));
+                this.weightB += weight;
+            } else {
+                this.levelA.put(s, new Weighted<V>(v, weight));
+                this.weightA += weight;
+            }
+            shrink();
+        }
+        return r == null ? null : r.value;
+    }
+
+    /**
+     * evict entries until level B holds at most half of the maximum weight and the sum of all weights
+     * is not greater than the maximum weight
+     */
+    private void shrink() {
+        while (this.weightB > this.maxWeight / 2 && this.levelB.size() > 1) {
+            this.weightB -= removeEldest(this.levelB);
+            this.stats.evict();
+        }
+        while (this.weightA + this.weightB > this.maxWeight) {
+            if (this.levelA.isEmpty()) {
+                this.weightB -= removeEldest(this.levelB);
+            } else {
+                this.weightA -= removeEldest(this.levelA);
+            }
+            this.stats.evict();
+        }
+    }
+
+    private static <K, V> long removeEldest(final LinkedHashMap<K, Weighted<V>> map) {
+        final Iterator<Weighted<V>> i = map.values().iterator();
+        if (!i.hasNext()) return 0;
+        final Weighted<V> w = i.next();
+        i.remove();
+        return w.weight;
+    }
+
+    /**
+     * get many values from the cache with one lock acquisition
+     * @param keys
+     * @return a map with all keys which are in the cache and their values
+     */
+    @Override
+    public final synchronized Map<K, V> getAll(final Collection<? extends K> keys) {
+        final Map<K, V> result = new HashMap<K, V>();
+        for (final K key: keys) {
+            final V v = get(key);
+            if (v != null) result.put(key, v);
+        }
+        return result;
+    }
+
+    /**
+     * put many values to the cache with one lock acquisition
+     * @param map
+     */
+    @Override
+    public final synchronized void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Map.Entry<? extends K, ? extends V> entry: map.entrySet()) put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * check if the map contains the value
+     * @param value
+     * @return the keys that have the given value
+     */
+    @Override
+    public final synchronized Collection<K> getKeys(final V value) {
+        final ArrayList<K> keys = new ArrayList<K>();
+        for (final Map.Entry<K, Weighted<V>> entry: this.levelB.entrySet()) {
+            if (value.equals(entry.getValue().value)) keys.add(entry.getKey());
+        }
+        for (final Map.Entry<K, Weighted<V>> entry: this.levelA.entrySet()) {
+            if (value.equals(entry.getValue().value)) keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * check if the map contains the key
+     * @param s
+     * @return
+     */
+    @Override
+    public final synchronized boolean containsKey(final Object s) {
+        return this.levelB.containsKey(s) || this.levelA.containsKey(s);
+    }
+
+    @Override
+    public final synchronized V peek(final K s) {
+        Weighted<V> w = this.levelB.get(s);
+        if (w == null) w = this.levelA.get(s);
+        return w == null ? null : w.value;
+    }
+
+    @Override
+    public final synchronized boolean removeValue(final K s, final V v) {
+        final V r = peek(s);
+        if (r == null || !r.equals(v)) return false;
+        remove(s);
+        return true;
+    }
+
+    /**
+     * remove an entry from the cache
+     * @param s
+     * @return the old value
+     */
+    @Override
+    public final synchronized V remove(final Object s) {
+        Weighted<V> r = this.levelB.remove(s);
+        if (r != null) {
+            this.weightB -= r.weight;
+            return r.value;
+        }
+        r = this.levelA.remove(s);
+        if (r != null) {
+            this.weightA -= r.weight;
+            return r.value;
+        }
+        return null;
+    }
+
+    /**
+     * clear the cache
+     */
+    @Override
+    public final synchronized void clear() {
+        this.levelA.clear();
+        this.levelB.clear();
+        this.weightA = 0;
+        this.weightB = 0;
+    }
+
+    /**
+     * remove a share of the entries, the eldest entries of level A first and then those of level B
+     * @param fraction the share of entries to remove
+     * @return the number of removed entries
+     */
+    @Override
+    public final synchronized int shrink(final double fraction) {
+        final int n = (int) Math.ceil((this.levelA.size() + this.levelB.size()) * fraction);
+        int c = 0;
+        while (c < n && !this.levelA.isEmpty()) {
+            this.weightA -= removeEldest(this.levelA);
+            c++;
+        }
+        while (c < n && !this.levelB.isEmpty()) {
+            this.weightB -= removeEldest(this.levelB);
+            c++;
+        }
+        this.stats.evict(c);
+        return c;
+    }
+
+    /**
+     * get the size of the ARC.
+     * @return the complete number of entries in the ARC cache
+     */
+    @Override
+    public final synchronized int size() {
+        return this.levelA.size() + this.levelB.size();
+    }
+
+    /**
+     * iterator implements the Iterable interface
+     */
+    @Override
+    public final Iterator<Map.Entry<K, V>> iterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Return a Set view of the mappings contained in this map.
+     * This method is the basis for all methods that are implemented
+     * by a AbstractMap implementation
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public final synchronized Set<Map.Entry<K, V>> entrySet() {
+        final Set<Map.Entry<K, V>> m = new HashSet<Map.Entry<K, V>>();
+        for (final Map.Entry<K, Weighted<V>> entry: this.levelA.entrySet()) m.add(new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), entry.getValue().value));
+        for (final Map.Entry<K, Weighted<V>> entry: this.levelB.entrySet()) m.add(new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), entry.getValue().value));
+        return m;
+    }
+
+    /**
+     * get the statistics counters of this ARC
+     * @return the hit, miss, insert and eviction counters
+     */
+    @Override
+    public final CacheStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * a hash code for this ARC
+     * @return the identity hash code of the ARC
+     */
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        return this == o;
+    }
+
+}
@@ -0,0 +1,271 @@
+/**
+ *  CompactMap
+ *  an array-backed map for small json objects
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map of a JSONObject. Most json objects have only a few keys; for those the keys and values are stored
+ * in insertion order in one array which is searched linearly. This needs a fraction of the memory of a
+ * HashMap or LinkedHashMap, which allocate a table and one entry object for each key.
+ * When the number of keys exceeds THRESHOLD, the content is moved to a LinkedHashMap (if the map is ordered)
+ * or a HashMap, and all further operations are delegated to that map. A map never moves back to the array.
+ * A CompactMap is not thread-safe, as the HashMap which was used before.
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+    final static int THRESHOLD = 8;
+
+    private final boolean ordered;
+    private Object[] table; // keys at even, values at odd positions; null after the upgrade
+    private int size;
+    private Map<String, Object> map; // the map after the upgrade
+
+    CompactMap(boolean ordered) {
+        this.ordered = ordered;
+        this.table = null; // allocated with the first put
+        this.size = 0;
+        this.map = null;
+    }
+
+    /**
+     * create a map which can hold the given number of keys without growing
+     * @param ordered if true, the insertion order is kept also after an upgrade to a hash map
+     * @param capacity the expected number of keys
+     * @return a CompactMap for small capacities, otherwise a HashMap or LinkedHashMap
+     */
+    static Map<String, Object> create(boolean ordered, int capacity) {
+        if (capacity > THRESHOLD) return ordered ? new LinkedHashMap<String, Object>(capacity * 4 / 3 + 1) : new HashMap<String, Object>(capacity * 4 / 3 + 1);
+        CompactMap m = new CompactMap(ordered);
+        if (capacity > 0) m.table = new Object[capacity * 2];
+        return m;
+    }
+
+    private int indexOf(Object key) {
+        final Object[] t = this.table;
+        final int n = this.size * 2;
+        for (int i = 0; i < n; i += 2) {
+            Object k = t[i];
+            if (k == key || k.equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private void upgrade() {
+        final Map<String, Object> m = this.ordered ? new LinkedHashMap<String, Object>(THRESHOLD * 4) : new HashMap<String, Object>(THRESHOLD * 4);
+        for (int i = 0; i < this.size * 2; i += 2) m.put((String) this.table[i], this.table[i + 1]);
+        this.map = m;
+        this.table = null;
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.map == null ? this.size : this.map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (this.map != null) return this.map.containsKey(key);
+        return key != null && this.size > 0 && indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.map != null) return this.map.get(key);
+        if (key == null || this.size == 0) return null;
+        int i = indexOf(key);
+        return i < 0 ? null : this.table[i + 1];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (this.map != null) return this.map.put(key, value);
+        if (key == null) throw new NullPointerException("Null key.");
+        if (this.size > 0) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                Object old = this.table[i + 1];
+                this.table[i + 1] = value;
+                return old;
+            }
+        }
+        if (this.size == THRESHOLD) {
+            upgrade();
+            return this.map.put(key, value);
+        }
+        if (this.table == null) {
+            this.table = new Object[8];
+        } else if (this.size * 2 == this.table.length) {
+            Object[] t = new Object[Math.min(THRESHOLD, this.size * 2) * 2];
+            System.arraycopy(this.table, 0, t, 0, this.size * 2);
+            this.table = t;
+        }
+        this.table[this.size * 2] = key;
+        this.table[this.size * 2 + 1] = value;
+        this.size++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (this.map != null) return this.map.remove(key);
+        if (key == null || this.size == 0) return null;
+        int i = indexOf(key);
+        if (i < 0) return null;
+        Object old = this.table[i + 1];
+        removeAt(i);
+        return old;
+    }
+
+    private void removeAt(int i) {
+        final int n = this.size * 2;
+        System.arraycopy(this.table, i + 2, this.table, i, n - i - 2);
+        this.table[n - 2] = null;
+        this.table[n - 1] = null;
+        this.size--;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        if (this.map == null && this.size + m.size() > THRESHOLD) upgrade();
+        if (this.map != null) {
+            this.map.putAll(m);
+            return;
+        }
+        for (Map.Entry<? extends String, ? extends Object> e: m.entrySet()) put(e.getKey(), e.getValue());
+    }
+
+    @Override
+    public void clear() {
+        if (this.map != null) {
+            this.map.clear();
+            return;
+        }
+        this.table = null;
+        this.size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new EntrySet();
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            if (CompactMap.this.map != null) return CompactMap.this.map.entrySet().iterator();
+            return new Iterator<Map.Entry<String, Object>>() {
+                private int next = 0, last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < CompactMap.this.size * 2;
+                }
+
+                @Override
+                public Map.Entry<String, Object> next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    this.last = this.next;
+                    this.next += 2;
+                    return new Entry(this.last);
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last < 0) throw new IllegalStateException();
+                    removeAt(this.last);
+                    this.next = this.last;
+                    this.last = -1;
+                }
+            };
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, Object> {
+        private final String key;
+        private Object value;
+
+        private Entry(int i) {
+            this.key = (String) CompactMap.this.table[i];
+            this.value = CompactMap.this.table[i + 1];
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = this.value;
+            CompactMap.this.put(this.key, value);
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return this.key.equals(e.getKey()) && (this.value == null ? e.getValue() == null : this.value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.key.hashCode() ^ (this.value == null ? 0 : this.value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.value;
+        }
+    }
+}
@@ -40,7 +40,6 @@ import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -160,7 +159,8 @@ public class JSONObject {
     static final Pattern NUMBER_PATTERN = Pattern.compile("-?(?:0|[1-9]\\d*)(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
 
     /**
-     * The map where the JSONObject's properties are kept.
+     * The map where the JSONObject's properties are kept: a CompactMap for small objects,
+     * a HashMap or LinkedHashMap for objects with many properties.
      */
     private final Map<String, Object> map;
 
@@ -182,7 +182,8 @@ public class JSONObject {
         // implementations to rearrange their items for a faster element 
         // retrieval based on associative access.
         // Therefore, an implementation mustn't rely on the order of the item.
-        this.map = new HashMap<String, Object>();
+        // Small objects are kept in a CompactMap which becomes a HashMap when it grows.
+        this.map = new CompactMap(false);
     }
 
     /**
@@ -192,7 +193,7 @@ public class JSONObject {
      *            if ordered == true, then the JSONObject keeps the original order of properties
      */
     public JSONObject(boolean ordered) {
-        this.map = ordered ? new LinkedHashMap<String, Object>() : new HashMap<String, Object>();
+        this.map = new CompactMap(ordered);
     }
     
     /**
@@ -241,7 +242,7 @@ public class JSONObject {
                 return;
             default:
                 x.back();
-                key = x.nextValue().toString();
+                key = x.key(x.nextValue().toString());
             }
 
             // The key is followed by ':'.
@@ -297,9 +298,9 @@ public class JSONObject {
      */
     public JSONObject(Map<?, ?> m) {
         if (m == null) {
-            this.map = new HashMap<String, Object>();
+            this.map = new CompactMap(false);
         } else {
-            this.map = new HashMap<String, Object>(m.size());
+            this.map = CompactMap.create(false, m.size());
         	for (final Entry<?, ?> e : m.entrySet()) {
         	    if(e.getKey() == null) {
         	        throw new NullPointerException("Null key.");
@@ -468,7 +469,7 @@ public class JSONObject {
      * @param initialCapacity initial capacity of the internal map.
      */
     protected JSONObject(int initialCapacity){
-        this.map = new HashMap<String, Object>(initialCapacity);
+        this.map = CompactMap.create(false, initialCapacity);
     }
 
     /**
@@ -2182,6 +2183,11 @@ public class JSONObject {
 
         char initial = string.charAt(0);
         if ((initial >= '0' && initial <= '9') || initial == '-') {
+            // the scanner converts number literals and rejects other text without exceptions
+            Number n = NumberScanner.scan(string);
+            if (n != null) return n;
+            // only text which is not a plain literal may still be a number for Double.valueOf, like "1.5f"
+            if (NumberScanner.plain(string) || !isDecimalNotation(string)) return string;
             try {
                 // if we want full Big Number support the contents of this
                 // `try` block can be replaced with:
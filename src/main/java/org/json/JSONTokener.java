@@ -55,6 +55,8 @@ public class JSONTokener {
     private boolean usePrevious;
     /** the number of characters read in the previous line. */
     private long characterPreviousLine;
+    /** optional table to intern the keys of objects. */
+    private KeyTable keys = null;
 
 
     /**
@@ -95,6 +97,28 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Intern the keys of all objects which are parsed with this tokener. Records with the same
+     * keys then share one String instance for each key.
+     *
+     * @param keys a key table, i.e. KeyTable.SHARED, or null to switch off interning
+     * @return this
+     */
+    public JSONTokener setKeyTable(KeyTable keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    /**
+     * Intern a key if a key table is set.
+     *
+     * @param key a key of an object
+     * @return the interned key
+     */
+    String key(String key) {
+        return this.keys == null ? key : this.keys.intern(key);
+    }
+
     /**
      * Back up one character. This provides a sort of lookahead capability,
      * so that you can test for a digit or letter before attempting to parse
@@ -0,0 +1,103 @@
+/**
+ *  KeyTable
+ *  a bounded symbol table for json keys
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A KeyTable interns the keys of parsed json objects, so that records with the same keys share one String
+ * instance for each key. A shared key also computes its hash only once, for all records.
+ * Other than String.intern() the table is bounded and local to its users: it is a direct-mapped table where
+ * every key has exactly one slot, a new key simply replaces the key in its slot. Lookups and replacements do
+ * not lock; concurrent parsers may at worst create a second instance of a key.
+ * Only short keys are interned, longer keys are returned as they are.
+ */
+public final class KeyTable {
+
+    /**
+     * a table for all json records which are read from dumps and files
+     */
+    public final static KeyTable SHARED = new KeyTable(4096);
+
+    public final static int MAX_KEY_LENGTH = 64;
+
+    private final AtomicReferenceArray<String> table;
+    private final int mask;
+
+    /**
+     * create a key table
+     * @param size the number of slots, rounded up to a power of two
+     */
+    public KeyTable(int size) {
+        int n = 1;
+        while (n < size) n = n * 2;
+        this.table = new AtomicReferenceArray<>(n);
+        this.mask = n - 1;
+    }
+
+    private int slot(int h) {
+        return (h ^ (h >>> 16)) & this.mask;
+    }
+
+    /**
+     * intern a key
+     * @param key
+     * @return the instance of the key in the table, or the key itself if it was not in the table
+     */
+    public String intern(String key) {
+        if (key.length() > MAX_KEY_LENGTH) return key;
+        int i = slot(key.hashCode());
+        String s = this.table.get(i);
+        if (s != null && s.equals(key)) return s;
+        this.table.lazySet(i, key);
+        return key;
+    }
+
+    /**
+     * intern a key which is given as ASCII bytes, without creating a String if the key is already in the table.
+     * The hash is computed on the bytes in the same way as String.hashCode().
+     * @param b the bytes
+     * @param off the offset of the key
+     * @param len the length of the key, the bytes must be all in the range 0..127
+     * @return the key
+     */
+    public String intern(byte[] b, int off, int len) {
+        if (len > MAX_KEY_LENGTH) return new String(b, off, len, StandardCharsets.ISO_8859_1);
+        int h = 0;
+        for (int j = 0; j < len; j++) h = 31 * h + b[off + j];
+        int i = slot(h);
+        String s = this.table.get(i);
+        if (s != null && s.length() == len) {
+            int j = 0;
+            while (j < len && s.charAt(j) == b[off + j]) j++;
+            if (j == len) return s;
+        }
+        s = new String(b, off, len, StandardCharsets.ISO_8859_1);
+        this.table.lazySet(i, s);
+        return s;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.table.length(); i++) this.table.set(i, null);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ *  NumberScanner
+ *  conversion of json number literals without exceptions
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.json;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The NumberScanner classifies and converts a number literal in a single pass over its characters.
+ * It does not throw exceptions and does not create substrings, so that text which only starts like a number
+ * (dates, versions, ip addresses, ids) is rejected as cheaply as a real number is converted.
+ * The accepted syntax is: an optional '-', digits with an optional fraction, and an optional exponent.
+ * The result is the same as in JSONObject.stringToValue: integers without a fraction or exponent become an
+ * Integer or a Long, but only if they are written without leading zeros and fit into a long; all other numbers
+ * become a Double, and "-0" is the Double -0.0. Numbers which are infinite as a double are rejected.
+ * Decimal numbers with up to 15 significant digits and a small exponent are converted exactly with one
+ * multiplication or division; longer numbers are converted with Double.parseDouble.
+ */
+public final class NumberScanner {
+
+    private final static double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * A view of ASCII bytes as characters; a parser can keep one instance and move it over its input.
+     */
+    public final static class ByteChars implements CharSequence {
+        private byte[] b;
+        private int off, len;
+
+        public ByteChars set(byte[] b, int off, int len) {
+            this.b = b;
+            this.off = off;
+            this.len = len;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return this.len;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (this.b[this.off + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(this.b, this.off + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(this.b, this.off, this.len, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * convert a number literal
+     * @param s the text
+     * @return an Integer, Long or Double, or null if the text is not a number literal
+     */
+    public static Number scan(CharSequence s) {
+        final int len = s.length();
+        if (len == 0) return null;
+        int i = 0;
+        final boolean negative = s.charAt(0) == '-';
+        if (negative) i++;
+
+        // integer part
+        final int intStart = i;
+        long m = 0;        // the significant digits
+        int digits = 0;    // the number of significant digits in m
+        int dropped = 0;   // the number of integer digits which did not fit into m
+        char c = 0;
+        while (i < len && (c = s.charAt(i)) >= '0' && c <= '9') {
+            if (digits < 18) {
+                m = m * 10 + (c - '0');
+                if (m > 0) digits++;
+            } else {
+                dropped++;
+            }
+            i++;
+        }
+        final int intDigits = i - intStart;
+        if (i == len) {
+            if (intDigits == 0) return null;
+            return integer(s, negative, intStart, intDigits);
+        }
+
+        // fraction
+        int fracDigits = 0;
+        int exp10 = dropped;
+        if (c == '.') {
+            i++;
+            while (i < len && (c = s.charAt(i)) >= '0' && c <= '9') {
+                if (digits < 18) {
+                    m = m * 10 + (c - '0');
+                    if (m > 0) digits++;
+                    exp10--;
+                }
+                fracDigits++;
+                i++;
+            }
+            if (intDigits == 0 && fracDigits == 0) return null;
+        } else if (intDigits == 0) {
+            return null;
+        }
+
+        // exponent
+        if (i < len && ((c = s.charAt(i)) == 'e' || c == 'E')) {
+            i++;
+            if (i == len) return null;
+            c = s.charAt(i);
+            boolean expNegative = false;
+            if (c == '+' || c == '-') {
+                expNegative = c == '-';
+                if (++i == len) return null;
+            }
+            int e = 0, expDigits = 0;
+            while (i < len && (c = s.charAt(i)) >= '0' && c <= '9') {
+                if (e < 100000) e = e * 10 + (c - '0');
+                expDigits++;
+                i++;
+            }
+            if (expDigits == 0) return null;
+            exp10 += expNegative ? -e : e;
+        }
+        if (i != len) return null; // trailing characters: this is not a number
+
+        double d;
+        if (m == 0) {
+            d = 0.0d;
+        } else if (digits <= 15 && exp10 >= -22 && exp10 <= 22) {
+            // exact: both m and the power of ten are exact doubles, the operation is correctly rounded
+            d = exp10 >= 0 ? m * POW10[exp10] : m / POW10[-exp10];
+        } else {
+            d = Math.abs(Double.parseDouble(s.toString()));
+        }
+        if (Double.isInfinite(d)) return null;
+        return Double.valueOf(negative ? -d : d);
+    }
+
+    private static Number integer(CharSequence s, boolean negative, int start, int digits) {
+        if (digits > 1 && s.charAt(start) == '0') return null; // leading zeros
+        if (negative && digits == 1 && s.charAt(start) == '0') return Double.valueOf(-0.0d); // "-0" is a decimal
+        if (digits > 19) return null;
+        // accumulate negatively as in Long.parseLong, to have the full range
+        long v = 0;
+        for (int i = start; i < start + digits; i++) {
+            int d = s.charAt(i) - '0';
+            if (v < Long.MIN_VALUE / 10) return null;
+            v = v * 10;
+            if (v < Long.MIN_VALUE + d) return null;
+            v -= d;
+        }
+        if (!negative) {
+            if (v == Long.MIN_VALUE) return null;
+            v = -v;
+        }
+        if (v == (int) v) return Integer.valueOf((int) v);
+        return Long.valueOf(v);
+    }
+
+    /**
+     * check if a text consists only of characters which may appear in a number literal.
+     * If a text which is not plain is rejected by scan(), it may still be accepted by Double.valueOf(),
+     * i.e. with a type suffix like in "1.5f" or in hexadecimal notation.
+     * @param s the text
+     * @return true if the text has only digits and '-', '+', '.', 'e', 'E'
+     */
+    public static boolean plain(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') return false;
+        }
+        return true;
+    }
+}
@@ -27,6 +27,7 @@ SOFTWARE.
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * This provides static methods to convert an XML text into a JSONObject, and to
@@ -251,9 +252,7 @@ public class XML {
             throws JSONException {
         char c;
         int i;
-        JSONObject jsonObject = null;
         String string;
-        String tagName;
         Object token;
 
         // Test for and skip past these forms:
@@ -330,88 +329,107 @@ public class XML {
             // Open tag <
 
         } else {
-            tagName = (String) token;
-            token = null;
-            jsonObject = new JSONObject();
-            boolean nilAttributeFound = false;
-            for (;;) {
-                if (token == null) {
-                    token = x.nextToken();
-                }
-                // attribute = value
-                if (token instanceof String) {
-                    string = (String) token;
+            return parseElement(x, context, (String) token, config);
+        }
+    }
+
+    /**
+     * Scan the content following the name of an open tag: the attributes, and
+     * the content and the close tag unless the tag is empty. The element is
+     * accumulated to the context.
+     *
+     * @param x
+     *            The XMLTokener, positioned after the tag name.
+     * @param context
+     *            The JSONObject that will include the new material.
+     * @param tagName
+     *            The tag name.
+     * @return false.
+     * @throws JSONException
+     */
+    static boolean parseElement(XMLTokener x, JSONObject context, String tagName, XMLParserConfiguration config)
+            throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        String string;
+        Object token = null;
+        boolean nilAttributeFound = false;
+        for (;;) {
+            if (token == null) {
+                token = x.nextToken();
+            }
+            // attribute = value
+            if (token instanceof String) {
+                string = (String) token;
+                token = x.nextToken();
+                if (token == EQ) {
                     token = x.nextToken();
-                    if (token == EQ) {
-                        token = x.nextToken();
-                        if (!(token instanceof String)) {
-                            throw x.syntaxError("Missing value");
-                        }
+                    if (!(token instanceof String)) {
+                        throw x.syntaxError("Missing value");
+                    }
 
-                        if (config.convertNilAttributeToNull
-                                && NULL_ATTR.equals(string)
-                                && Boolean.parseBoolean((String) token)) {
-                            nilAttributeFound = true;
-                        } else if (!nilAttributeFound) {
-                            jsonObject.accumulate(string,
-                                    config.keepStrings
-                                            ? ((String) token)
-                                            : stringToValue((String) token));
-                        }
-                        token = null;
-                    } else {
-                        jsonObject.accumulate(string, "");
+                    if (config.convertNilAttributeToNull
+                            && NULL_ATTR.equals(string)
+                            && Boolean.parseBoolean((String) token)) {
+                        nilAttributeFound = true;
+                    } else if (!nilAttributeFound) {
+                        jsonObject.accumulate(string,
+                                config.keepStrings
+                                        ? ((String) token)
+                                        : stringToValue((String) token));
                     }
+                    token = null;
+                } else {
+                    jsonObject.accumulate(string, "");
+                }
 
 
-                } else if (token == SLASH) {
-                    // Empty tag <.../>
-                    if (x.nextToken() != GT) {
-                        throw x.syntaxError("Misshaped tag");
-                    }
-                    if (nilAttributeFound) {
-                        context.accumulate(tagName, JSONObject.NULL);
-                    } else if (jsonObject.length() > 0) {
-                        context.accumulate(tagName, jsonObject);
-                    } else {
-                        context.accumulate(tagName, "");
-                    }
-                    return false;
+            } else if (token == SLASH) {
+                // Empty tag <.../>
+                if (x.nextToken() != GT) {
+                    throw x.syntaxError("Misshaped tag");
+                }
+                if (nilAttributeFound) {
+                    context.accumulate(tagName, JSONObject.NULL);
+                } else if (jsonObject.length() > 0) {
+                    context.accumulate(tagName, jsonObject);
+                } else {
+                    context.accumulate(tagName, "");
+                }
+                return false;
+
+            } else if (token == GT) {
+                // Content, between <...> and </...>
+                for (;;) {
+                    token = x.nextContent();
+                    if (token == null) {
+                        if (tagName != null) {
+                            throw x.syntaxError("Unclosed tag " + tagName);
+                        }
+                        return false;
+                    } else if (token instanceof String) {
+                        string = (String) token;
+                        if (string.length() > 0) {
+                            jsonObject.accumulate(config.cDataTagName,
+                                    config.keepStrings ? string : stringToValue(string));
+                        }
 
-                } else if (token == GT) {
-                    // Content, between <...> and </...>
-                    for (;;) {
-                        token = x.nextContent();
-                        if (token == null) {
-                            if (tagName != null) {
-                                throw x.syntaxError("Unclosed tag " + tagName);
+                    } else if (token == LT) {
+                        // Nested element
+                        if (parse(x, jsonObject, tagName, config)) {
+                            if (jsonObject.length() == 0) {
+                                context.accumulate(tagName, "");
+                            } else if (jsonObject.length() == 1
+                                    && jsonObject.opt(config.cDataTagName) != null) {
+                                context.accumulate(tagName, jsonObject.opt(config.cDataTagName));
+                            } else {
+                                context.accumulate(tagName, jsonObject);
                             }
                             return false;
-                        } else if (token instanceof String) {
-                            string = (String) token;
-                            if (string.length() > 0) {
-                                jsonObject.accumulate(config.cDataTagName,
-                                        config.keepStrings ? string : stringToValue(string));
-                            }
-
-                        } else if (token == LT) {
-                            // Nested element
-                            if (parse(x, jsonObject, tagName, config)) {
-                                if (jsonObject.length() == 0) {
-                                    context.accumulate(tagName, "");
-                                } else if (jsonObject.length() == 1
-                                        && jsonObject.opt(config.cDataTagName) != null) {
-                                    context.accumulate(tagName, jsonObject.opt(config.cDataTagName));
-                                } else {
-                                    context.accumulate(tagName, jsonObject);
-                                }
-                                return false;
-                            }
                         }
                     }
-                } else {
-                    throw x.syntaxError("Misshaped tag");
                 }
+            } else {
+                throw x.syntaxError("Misshaped tag");
             }
         }
     }
@@ -615,6 +633,31 @@ public class XML {
         return toJSONObject(new StringReader(string), config);
     }
 
+    /**
+     * Convert the elements at a path of an XML document one by one into
+     * JSONObjects, i.e. every "/urlset/url" of a sitemap. The document is
+     * streamed: each element is handed to the consumer as soon as it is read,
+     * and only one element is held in memory. The elements are converted as
+     * with {@link #toJSONObject(Reader, XMLParserConfiguration)}.
+     *
+     * @param reader The XML source reader.
+     * @param path The element path, names separated by '/', "*" matches any name.
+     * @param config Configuration options for the parser.
+     * @param consumer The receiver of the elements.
+     * @return the number of elements.
+     * @throws JSONException Thrown if there is an errors while parsing the document
+     * @see XMLElementIterator
+     */
+    public static int toJSONObjects(Reader reader, String path, XMLParserConfiguration config, Consumer<JSONObject> consumer) throws JSONException {
+        XMLElementIterator i = new XMLElementIterator(reader, path, config);
+        int count = 0;
+        while (i.hasNext()) {
+            consumer.accept(i.next());
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Convert a JSONObject into a well-formed, element-normal XML string.
      *
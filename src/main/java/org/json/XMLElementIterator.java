@@ -0,0 +1,186 @@
+/**
+ *  XMLElementIterator
+ *  streaming conversion of repeating xml elements to json
+ *  Copyright 2026 by Michael Peter Christen, mc@yacy.net, Frankfurt a. M., Germany
+ *  First released 17.10.2026 at http://yacy.net
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.json;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An XMLElementIterator reads an xml document from a Reader and returns one JSONObject for each element at a
+ * given path, i.e. for every "/urlset/url" in a sitemap or every "/rss/channel/item" in a feed. Only the element
+ * which is returned is converted; everything outside of the matching elements is skipped while it is read.
+ * The memory needed is therefore bounded by the size of a single element, not by the size of the document, and
+ * the first element is returned as soon as it is read.
+ * Each element is converted as with XML.toJSONObject and the given XMLParserConfiguration. An element with
+ * attributes or child elements is returned as its object; an element with only text content is returned as an
+ * object which holds the text with the cDataTagName of the configuration ("content" if it is null); an empty
+ * element is returned as an empty object.
+ * The path is a sequence of element names separated by '/', starting at the root element; a name "*" matches
+ * any element. Matching elements inside of a matching element are part of the outer element.
+ */
+public class XMLElementIterator implements Iterator<JSONObject> {
+
+    private final XMLTokener x;
+    private final String[] path;
+    private final XMLParserConfiguration config;
+    private final List<String> open; // the names of the open elements outside of a match
+    private JSONObject next;
+
+    /**
+     * create an iterator over the elements at a path
+     * @param reader the xml source
+     * @param path the element path, i.e. "/urlset/url"
+     * @param config the parser configuration
+     */
+    public XMLElementIterator(Reader reader, String path, XMLParserConfiguration config) {
+        this.x = new XMLTokener(reader);
+        List<String> p = new ArrayList<>();
+        for (String s: path.split("/")) if (s.length() > 0) p.add(s);
+        if (p.isEmpty()) throw new JSONException("empty element path: " + path);
+        this.path = p.toArray(new String[p.size()]);
+        this.config = config;
+        this.open = new ArrayList<>();
+        this.next = null;
+    }
+
+    public XMLElementIterator(Reader reader, String path) {
+        this(reader, path, XMLParserConfiguration.ORIGINAL);
+    }
+
+    @Override
+    public boolean hasNext() throws JSONException {
+        if (this.next == null) this.next = scan();
+        return this.next != null;
+    }
+
+    @Override
+    public JSONObject next() throws JSONException {
+        if (!hasNext()) throw new NoSuchElementException();
+        JSONObject json = this.next;
+        this.next = null;
+        return json;
+    }
+
+    private boolean matches(String tagName) {
+        if (this.open.size() != this.path.length - 1) return false;
+        for (int i = 0; i < this.open.size(); i++) {
+            if (!matches(this.path[i], this.open.get(i))) return false;
+        }
+        return matches(this.path[this.path.length - 1], tagName);
+    }
+
+    private static boolean matches(String pattern, String name) {
+        return "*".equals(pattern) || pattern.equals(name);
+    }
+
+    /**
+     * read until the next matching element and convert it
+     * @return the element or null at the end of the document
+     */
+    private JSONObject scan() throws JSONException {
+        for (;;) {
+            Object token = this.x.nextContent();
+            if (token == null) return null; // end of document
+            if (token != XML.LT) continue; // text outside of a matching element
+
+            token = this.x.nextToken();
+            if (token == XML.BANG) {
+                skipBang();
+            } else if (token == XML.QUEST) {
+                this.x.skipPast("?>");
+            } else if (token == XML.SLASH) {
+                // close tag
+                token = this.x.nextToken();
+                int last = this.open.size() - 1;
+                if (last < 0) throw this.x.syntaxError("Mismatched close tag " + token);
+                if (!token.equals(this.open.get(last))) throw this.x.syntaxError("Mismatched " + this.open.get(last) + " and " + token);
+                if (this.x.nextToken() != XML.GT) throw this.x.syntaxError("Misshaped close tag");
+                this.open.remove(last);
+            } else if (token instanceof Character) {
+                throw this.x.syntaxError("Misshaped tag");
+            } else {
+                String tagName = (String) token;
+                if (matches(tagName)) {
+                    JSONObject context = new JSONObject();
+                    XML.parseElement(this.x, context, tagName, this.config);
+                    Object value = context.opt(tagName);
+                    if (value instanceof JSONObject) return (JSONObject) value;
+                    JSONObject json = new JSONObject();
+                    if (value != null && !"".equals(value) && !JSONObject.NULL.equals(value)) {
+                        json.put(this.config.cDataTagName == null ? "content" : this.config.cDataTagName, value);
+                    }
+                    return json;
+                }
+                skipTag(tagName);
+            }
+        }
+    }
+
+    /**
+     * skip the attributes of an open tag which does not match; if the tag is not empty, it is opened
+     * @param tagName the name of the tag
+     */
+    private void skipTag(String tagName) throws JSONException {
+        for (;;) {
+            Object token = this.x.nextToken();
+            if (token == XML.GT) {
+                this.open.add(tagName);
+                return;
+            }
+            if (token == XML.SLASH) {
+                if (this.x.nextToken() != XML.GT) throw this.x.syntaxError("Misshaped tag");
+                return;
+            }
+        }
+    }
+
+    /**
+     * skip a comment, a CDATA section or a declaration, after "<!"
+     */
+    private void skipBang() throws JSONException {
+        char c = this.x.next();
+        if (c == '-') {
+            if (this.x.next() == '-') {
+                this.x.skipPast("-->");
+                return;
+            }
+            this.x.back();
+        } else if (c == '[') {
+            this.x.skipPast("]]>");
+            return;
+        }
+        int i = 1;
+        do {
+            Object token = this.x.nextMeta();
+            if (token == null) {
+                throw this.x.syntaxError("Missing '>' after '<!'.");
+            } else if (token == XML.LT) {
+                i += 1;
+            } else if (token == XML.GT) {
+                i -= 1;
+            }
+        } while (i > 0);
+    }
+}